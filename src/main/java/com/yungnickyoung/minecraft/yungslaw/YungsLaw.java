@@ -1,15 +1,23 @@
 package com.yungnickyoung.minecraft.yungslaw;
 
+import com.yungnickyoung.minecraft.yungslaw.benchmark.SoakBenchmark;
+import com.yungnickyoung.minecraft.yungslaw.command.CommandYungsLaw;
 import com.yungnickyoung.minecraft.yungslaw.config.util.ConfigHolder;
 import com.yungnickyoung.minecraft.yungslaw.config.YLSettings;
 import com.yungnickyoung.minecraft.yungslaw.proxy.Proxy;
 import com.yungnickyoung.minecraft.yungslaw.world.BlockGenerator;
+import com.yungnickyoung.minecraft.yungslaw.world.SpawnBatch;
+import com.yungnickyoung.minecraft.yungslaw.world.sink.ChunkResender;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.Mod.EventHandler;
 import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerAboutToStartEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartedEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppingEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -50,4 +58,26 @@ public class YungsLaw {
     public void postInit(FMLPostInitializationEvent event) {
         proxy.postInit();
     }
+
+    @EventHandler
+    public void serverAboutToStart(FMLServerAboutToStartEvent event) {
+        SoakBenchmark.serverAboutToStart();
+        SpawnBatch.serverAboutToStart();
+    }
+
+    @EventHandler
+    public void serverStarting(FMLServerStartingEvent event) {
+        SpawnBatch.serverStarting();
+        event.registerServerCommand(new CommandYungsLaw());
+    }
+
+    @EventHandler
+    public void serverStarted(FMLServerStartedEvent event) {
+        SoakBenchmark.serverStarted();
+    }
+
+    @EventHandler
+    public void serverStopping(FMLServerStoppingEvent event) {
+        ChunkResender.logStats();
+    }
 }
@@ -0,0 +1,311 @@
+package com.yungnickyoung.minecraft.yungslaw.benchmark;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.config.util.ConfigHolder;
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import com.yungnickyoung.minecraft.yungslaw.world.BlockGenerator;
+import com.yungnickyoung.minecraft.yungslaw.world.DepthProfile;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.BandedEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.EngineType;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ParallelEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementRegion;
+import com.yungnickyoung.minecraft.yungslaw.world.source.ChunkClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.structure.StructureClassSource;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.util.text.Style;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextFormatting;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Dry-run A/B benchmark over the loaded chunks of a dimension, driven by /yungslaw bench.
+ *
+ * Each loaded chunk's population area is decided the way BlockGenerator.generateBatch would decide it and, optionally,
+ * by an alternative engine, without writing anything. Only loaded chunks are read, and unloaded neighbours count as safe.
+ * Chunks are worked through over as many ticks as needed, within a budget per tick that is checked after every engine
+ * run, and the engines take turns going first so neither benefits from warm caches more than the other. Once done,
+ * per-chunk timing percentiles, allocation and the number of chunks whose replacement masks differ are reported.
+ */
+public class LiveBenchmark {
+    /** Time spent benchmarking per tick */
+    private static final long TICK_BUDGET_NANOS = 10_000_000L;
+    /** Largest Generation Distance that may be used instead of the dimension's, keeping each chunk's padded volume small */
+    public static final int MAX_RADIUS = 32;
+    /** Engines that aren't an EngineType, but can still be benchmarked */
+    private static final String PARALLEL = "parallel";
+    private static final String BANDED = "banded";
+
+    private static LiveBenchmark running;
+
+    private final ICommandSender sender;
+    private final WorldServer world;
+    private final List<Chunk> chunks;
+    private final DepthProfile profile;
+    private final ReplacementEngine current;
+    @Nullable private final String alternativeName;
+    @Nullable private final ReplacementEngine alternative;
+
+    private int nextChunk = 0;
+    /** The chunk being benchmarked, if its engines haven't all run yet */
+    @Nullable private PendingChunk pending;
+    private int mismatches = 0;
+    private final Timings currentTimings = new Timings();
+    private final Timings alternativeTimings = new Timings();
+
+    private LiveBenchmark(ICommandSender sender, WorldServer world, @Nullable String alternativeName, @Nullable Integer radius) {
+        ConfigHolder config = BlockGenerator.getConfig(world);
+        this.sender = sender;
+        this.world = world;
+        this.chunks = new ArrayList<>(world.getChunkProvider().getLoadedChunks());
+
+        // Depth Bands only apply when the dimension's own Generation Distance is used
+        this.profile = radius == null ? DepthProfile.of(config) : DepthProfile.of(config).withRadius(radius);
+        this.alternativeName = alternativeName;
+        this.alternative = alternativeName == null ? null : createEngine(alternativeName, profile);
+
+        // Every chunk's region has the same size, so generateBatch would pick the same engine for all of them
+        this.current = BlockGenerator.getEngine(createRegion(0, 0, new BlockClassifier(config)), profile);
+    }
+
+    /**
+     * Starts benchmarking the loaded chunks of a world.
+     *
+     * @param alternativeName The engine to compare against, one of getEngineNames, or null to only time the current one
+     * @param radius Generation Distance to use instead of the dimension's, or null
+     * @return false if a benchmark is already running
+     */
+    public static boolean start(ICommandSender sender, WorldServer world, @Nullable String alternativeName, @Nullable Integer radius) {
+        if (running != null) return false;
+
+        running = new LiveBenchmark(sender, world, alternativeName, radius);
+        MinecraftForge.EVENT_BUS.register(running);
+        send(sender, "Benchmarking " + running.chunks.size() + " loaded chunks"
+            + (alternativeName != null ? " against " + alternativeName : "") + " with a Generation Distance of " + running.profile.getMaxRadius() + "...", TextFormatting.GRAY);
+        if (running.profile.hasVariableRadius() && alternativeName != null && !alternativeName.equals(BANDED)) {
+            send(sender, "This dimension uses Depth Bands, which only the banded engine supports. " + alternativeName + " uses the largest distance, so masks will differ", TextFormatting.YELLOW);
+        }
+        return true;
+    }
+
+    /**
+     * @return the names of the engines that can be compared against the current one
+     */
+    public static List<String> getEngineNames() {
+        List<String> names = Arrays.stream(EngineType.values())
+            .filter(engineType -> engineType != EngineType.AUTO)
+            .map(engineType -> engineType.name().toLowerCase(Locale.ENGLISH))
+            .collect(Collectors.toList());
+        names.add(PARALLEL);
+        names.add(BANDED);
+        return names;
+    }
+
+    /**
+     * Creates an engine from one of getEngineNames. The banded engine uses the profile's Generation Distances.
+     */
+    private static ReplacementEngine createEngine(String name, DepthProfile profile) {
+        switch (name) {
+            case PARALLEL: return new ParallelEngine();
+            case BANDED:   return new BandedEngine(profile.getRadii());
+            default:       return EngineType.valueOf(name.toUpperCase(Locale.ENGLISH)).getEngine();
+        }
+    }
+
+    /**
+     * @return the population area of a chunk, padded by the largest Generation Distance
+     */
+    private ReplacementRegion createRegion(int chunkX, int chunkZ, BlockClassifier classifier) {
+        return new ReplacementRegion(chunkX * 16 + 8, chunkZ * 16 + 8, 16, 16, profile.getMaxRadius(), profile.getRadii().length, classifier.getTargetValue());
+    }
+
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+
+        // Stop if the dimension was unloaded
+        if (DimensionManager.getWorld(world.provider.getDimension()) != world) {
+            stop();
+            send(sender, "Benchmark cancelled: the dimension was unloaded", TextFormatting.RED);
+            return;
+        }
+
+        // The budget is checked after every engine run, so a chunk's engines may be spread over several ticks
+        final long tickStart = System.nanoTime();
+        while (nextChunk < chunks.size() && System.nanoTime() - tickStart < TICK_BUDGET_NANOS) {
+            if (pending == null) {
+                Chunk chunk = chunks.get(nextChunk);
+                pending = chunk.isLoaded() ? prepare(chunk, nextChunk % 2 == 0) : null;
+            }
+            if (pending == null || pending.runNext()) {
+                pending = null;
+                nextChunk++;
+            }
+        }
+
+        if (nextChunk >= chunks.size()) {
+            stop();
+            report();
+        }
+    }
+
+    /**
+     * Gathers a chunk's surroundings for its engines to run on.
+     *
+     * @return null if there is nothing to benchmark
+     */
+    @Nullable
+    private PendingChunk prepare(Chunk chunk, boolean currentFirst) {
+        final ConfigHolder    config     = BlockGenerator.getConfig(world);
+        final BlockClassifier classifier = new BlockClassifier(config);
+        if (profile.getRadii().length == 0) return null;
+
+        final ReplacementRegion region = createRegion(chunk.x, chunk.z, classifier);
+        final ChunkClassSource chunkSource = new ChunkClassSource(classifier, region, BlockClassifier.SAFE);
+        for (int chunkX = ChunkClassSource.getMinChunkX(region); chunkX <= ChunkClassSource.getMaxChunkX(region); chunkX++) {
+            for (int chunkZ = ChunkClassSource.getMinChunkZ(region); chunkZ <= ChunkClassSource.getMaxChunkZ(region); chunkZ++) {
+                Chunk loaded = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+                if (loaded != null) chunkSource.setChunk(loaded);
+            }
+        }
+        return new PendingChunk(chunk, region, StructureClassSource.wrap(world, region, chunkSource, config), currentFirst);
+    }
+
+    /**
+     * A chunk whose engines are run one at a time, taking turns going first.
+     */
+    private class PendingChunk {
+        private final Chunk chunk;
+        private final ReplacementRegion region;
+        private final ClassSource source;
+        private final boolean currentFirst;
+        private int runs = 0;
+        private byte[] currentMask, alternativeMask;
+
+        private PendingChunk(Chunk chunk, ReplacementRegion region, ClassSource source, boolean currentFirst) {
+            this.chunk = chunk;
+            this.region = region;
+            this.source = source;
+            this.currentFirst = currentFirst;
+        }
+
+        /**
+         * Runs the next engine.
+         *
+         * @return true once every engine has run
+         */
+        private boolean runNext() {
+            if (alternative == null) {
+                run(current, region, source, currentTimings);
+                return true;
+            }
+
+            if ((runs++ == 0) == currentFirst) {
+                currentMask = run(current, region, source, currentTimings);
+            } else {
+                alternativeMask = run(alternative, region, source, alternativeTimings);
+            }
+            if (runs < 2) return false;
+
+            if (!Arrays.equals(currentMask, alternativeMask)) {
+                mismatches++;
+                YungsLaw.LOGGER.warn("Benchmark: {} and {} disagree on chunk ({}, {})", current.getClass().getSimpleName(), alternativeName, chunk.x, chunk.z);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Runs an engine without writing anything.
+     *
+     * @return the replacement mask, indexed by (y * 16 + z) * 16 + x within the region's inner area
+     */
+    private static byte[] run(ReplacementEngine engine, ReplacementRegion region, ClassSource source, Timings timings) {
+        final byte[] mask = new byte[16 * 16 * region.maxAltitude];
+        final long allocatedStart = timings.getAllocatedBytes();
+        final long start = System.nanoTime();
+        engine.process(region, source, (x, y, z, value) -> mask[(y * 16 + (z - region.zStart)) * 16 + (x - region.xStart)] = 1);
+        timings.add(System.nanoTime() - start, timings.getAllocatedBytes() - allocatedStart);
+        return mask;
+    }
+
+    private void stop() {
+        MinecraftForge.EVENT_BUS.unregister(this);
+        running = null;
+    }
+
+    private void report() {
+        send(sender, "Benchmarked " + currentTimings.size() + " chunks in dimension " + world.provider.getDimension(), TextFormatting.GREEN);
+        send(sender, "Current (" + current.getClass().getSimpleName() + "): " + currentTimings, TextFormatting.GRAY);
+        YungsLaw.LOGGER.info("Benchmark current ({}): {}", current.getClass().getSimpleName(), currentTimings);
+
+        if (alternative != null) {
+            send(sender, alternativeName + ": " + alternativeTimings, TextFormatting.GRAY);
+            YungsLaw.LOGGER.info("Benchmark {}: {}", alternativeName, alternativeTimings);
+            send(sender, mismatches == 0 ? "Replacement masks are identical" : "Replacement masks differ in " + mismatches + " chunks",
+                mismatches == 0 ? TextFormatting.GREEN : TextFormatting.RED);
+        }
+    }
+
+    private static void send(ICommandSender sender, String message, TextFormatting color) {
+        sender.sendMessage(new TextComponentString(message).setStyle(new Style().setColor(color)));
+    }
+
+    /**
+     * Per-chunk timings and allocations of one engine.
+     * Allocations are measured on the server thread, so they're only reported where the JVM supports it.
+     */
+    private static class Timings {
+        private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+        private final List<Long> nanos = new ArrayList<>();
+        private long allocatedBytes = 0;
+
+        private void add(long chunkNanos, long chunkAllocatedBytes) {
+            nanos.add(chunkNanos);
+            allocatedBytes += chunkAllocatedBytes;
+        }
+
+        private int size() {
+            return nanos.size();
+        }
+
+        /**
+         * @return bytes allocated so far by the current thread, or -1 if unsupported
+         */
+        private long getAllocatedBytes() {
+            if (!(THREAD_BEAN instanceof com.sun.management.ThreadMXBean)) return -1;
+            return ((com.sun.management.ThreadMXBean) THREAD_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        private double percentile(List<Long> sorted, double fraction) {
+            return sorted.get(Math.min(sorted.size() - 1, Math.max(0, (int) Math.ceil(sorted.size() * fraction) - 1))) / 1.0e6;
+        }
+
+        @Override
+        public String toString() {
+            if (nanos.isEmpty()) return "no chunks";
+
+            List<Long> sorted = new ArrayList<>(nanos);
+            sorted.sort(null);
+            String allocation = getAllocatedBytes() < 0 ? "n/a" : String.format(Locale.ROOT, "%.1fKB", allocatedBytes / 1024.0 / nanos.size());
+            return String.format(Locale.ROOT, "p50 %.2fms, p90 %.2fms, p99 %.2fms, max %.2fms, %s allocated per chunk",
+                percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99), percentile(sorted, 1.0), allocation);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.yungnickyoung.minecraft.yungslaw.benchmark;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.config.Configuration;
+import com.yungnickyoung.minecraft.yungslaw.world.NoCascadeStats;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.EngineType;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Headless worldgen soak benchmark, driven by the soakBenchmark Gradle task.
+ *
+ * When the yungslaw.soak.mode system property is set, YUNG's Law is configured for that mode before the worlds load.
+ * Once the server has started, an N x N chunk area of the overworld is pregenerated over as many ticks as needed,
+ * after which a report is written and the server is stopped. Timings are reported per chunk, since tick times are capped
+ * by the benchmark's own budget per tick.
+ * Only one mode is run per server, so every mode generates the same fresh terrain from the same seed.
+ */
+public class SoakBenchmark {
+    private static final String PROPERTY_PREFIX = "yungslaw.soak.";
+
+    private final String mode;
+    private final int size;
+    private final int originX;
+    private final int originZ;
+    private final long tickBudgetNanos;
+    private final File reportFile;
+
+    private MinecraftServer server;
+    private int nextChunk = 0;
+    private long startNanos;
+    private long tickStartNanos;
+    private long generateNanos;
+    private long gcTimeStart;
+    private long gcCountStart;
+    private long heapHighWater;
+    private final List<Long> chunkNanos = new ArrayList<>();
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+    private static SoakBenchmark instance;
+
+    private SoakBenchmark(String mode) {
+        this.mode = mode;
+        this.size = Integer.getInteger(PROPERTY_PREFIX + "size", 24);
+        this.originX = Integer.getInteger(PROPERTY_PREFIX + "originX", 2000);
+        this.originZ = Integer.getInteger(PROPERTY_PREFIX + "originZ", 2000);
+        this.tickBudgetNanos = Integer.getInteger(PROPERTY_PREFIX + "tickBudgetMs", 45) * 1_000_000L;
+        this.reportFile = new File(System.getProperty(PROPERTY_PREFIX + "report", "soak-" + mode + ".properties"));
+    }
+
+    /**
+     * Applies the benchmark's mode to the config, if a benchmark was requested.
+     * Must be called before the worlds load, since some modes take effect when a world is loaded.
+     */
+    public static void serverAboutToStart() {
+        String mode = System.getProperty(PROPERTY_PREFIX + "mode");
+        if (mode == null) return;
+
+        instance = new SoakBenchmark(mode.toLowerCase(Locale.ENGLISH));
+        instance.applyMode();
+    }
+
+    /**
+     * Starts pregenerating, if a benchmark was requested.
+     */
+    public static void serverStarted() {
+        if (instance == null) return;
+
+        instance.server = FMLCommonHandler.instance().getMinecraftServerInstance();
+        MinecraftForge.EVENT_BUS.register(instance);
+        YungsLaw.LOGGER.info("Starting YUNG's Law soak benchmark in mode '{}': {}x{} chunks at chunk ({}, {})", instance.mode, instance.size, instance.size, instance.originX, instance.originZ);
+    }
+
+    private void applyMode() {
+        Configuration.performance.enablePrimerStage = false;
+        Configuration.performance.enableNoCascade = false;
+        switch (mode) {
+            case "disabled":
+                Configuration.enableGlobalWhitelist = false;
+                Configuration.whitelistedDimensionIDs = new int[0];
+                break;
+            case "primer":
+                Configuration.performance.enablePrimerStage = true;
+                break;
+            case "nocascade":
+                Configuration.performance.enableNoCascade = true;
+                break;
+            case "ore":
+                Configuration.replacementSettings.enableOreDeletion = true;
+                break;
+            default:
+                try {
+                    Configuration.performance.engine = EngineType.valueOf(mode.toUpperCase(Locale.ENGLISH));
+                } catch (IllegalArgumentException e) {
+                    YungsLaw.LOGGER.error("Unknown soak benchmark mode '{}'. Using the current config...", mode);
+                }
+        }
+        YungsLaw.configMap.clear();
+    }
+
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.START) {
+            tickStartNanos = System.nanoTime();
+            if (nextChunk == 0) start();
+            generate();
+            return;
+        }
+
+        heapHighWater = Math.max(heapHighWater, memoryBean.getHeapMemoryUsage().getUsed());
+
+        if (nextChunk >= size * size) finish();
+    }
+
+    private void start() {
+        startNanos = System.nanoTime();
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcTimeStart += Math.max(0, gcBean.getCollectionTime());
+            gcCountStart += Math.max(0, gcBean.getCollectionCount());
+        }
+        NoCascadeStats.reset();
+    }
+
+    /**
+     * Generates chunks row by row until this tick's budget is used up.
+     * Chunks are populated as soon as their neighbours exist, just like during normal play, so each chunk's time
+     * includes populating (and running YUNG's Law on) the chunks it completes.
+     */
+    private void generate() {
+        WorldServer world = server.getWorld(0);
+        while (nextChunk < size * size && System.nanoTime() - tickStartNanos < tickBudgetNanos) {
+            int chunkX = originX + nextChunk % size;
+            int chunkZ = originZ + nextChunk / size;
+            long chunkStart = System.nanoTime();
+            world.getChunkProvider().provideChunk(chunkX, chunkZ);
+            chunkNanos.add(System.nanoTime() - chunkStart);
+            generateNanos += chunkNanos.get(chunkNanos.size() - 1);
+            nextChunk++;
+
+            // Let the world unload finished rows so memory use reflects normal play.
+            // Row r is only populated while row r + 1 is generated, and its population reads into row r - 1,
+            // so only rows at least two behind the current one are done with
+            if (nextChunk % size == 0) {
+                int doneRow = nextChunk / size - 3;
+                if (doneRow >= 0) unloadRow(world, originZ + doneRow);
+            }
+        }
+    }
+
+    private void unloadRow(WorldServer world, int chunkZ) {
+        for (int chunkX = originX; chunkX < originX + size; chunkX++) {
+            Chunk chunk = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+            if (chunk != null) world.getChunkProvider().queueUnload(chunk);
+        }
+    }
+
+    private void finish() {
+        MinecraftForge.EVENT_BUS.unregister(this);
+
+        double seconds = (System.nanoTime() - startNanos) / 1.0e9;
+        long gcTime = -gcTimeStart;
+        long gcCount = -gcCountStart;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcTime += Math.max(0, gcBean.getCollectionTime());
+            gcCount += Math.max(0, gcBean.getCollectionCount());
+        }
+
+        List<Long> sorted = new ArrayList<>(chunkNanos);
+        Collections.sort(sorted);
+        double msPerChunk = sorted.isEmpty() ? 0 : generateNanos / 1.0e6 / sorted.size();
+        double p50ChunkMs = percentile(sorted, 0.5);
+        double p99ChunkMs = percentile(sorted, 0.99);
+        double maxChunkMs = percentile(sorted, 1.0);
+
+        Properties report = new Properties();
+        report.setProperty("mode", mode);
+        report.setProperty("seed", Long.toString(server.getWorld(0).getSeed()));
+        report.setProperty("size", Integer.toString(size));
+        report.setProperty("chunks", Integer.toString(size * size));
+        report.setProperty("seconds", format(seconds));
+        report.setProperty("chunksPerSecond", format(size * size / seconds));
+        report.setProperty("msPerChunk", format(msPerChunk));
+        report.setProperty("p50ChunkMs", format(p50ChunkMs));
+        report.setProperty("p99ChunkMs", format(p99ChunkMs));
+        report.setProperty("maxChunkMs", format(maxChunkMs));
+        report.setProperty("gcPauseMs", Long.toString(gcTime));
+        report.setProperty("gcCount", Long.toString(gcCount));
+        report.setProperty("conservativeBorderFraction", format(NoCascadeStats.getConservativeFraction()));
+        report.setProperty("heapHighWaterMb", format(heapHighWater / (1024.0 * 1024.0)));
+
+        try (OutputStream out = new FileOutputStream(reportFile)) {
+            report.store(out, "YUNG's Law soak benchmark");
+            YungsLaw.LOGGER.info("Soak benchmark '{}' finished: {} chunks/s. Report written to {}", mode, report.getProperty("chunksPerSecond"), reportFile.getAbsolutePath());
+        } catch (IOException e) {
+            YungsLaw.LOGGER.error("Unable to write soak benchmark report to {}: {}", reportFile, e);
+        }
+
+        server.initiateShutdown();
+    }
+
+    private static double percentile(List<Long> sorted, double fraction) {
+        if (sorted.isEmpty()) return 0;
+        return sorted.get(Math.min(sorted.size() - 1, Math.max(0, (int) Math.ceil(sorted.size() * fraction) - 1))) / 1.0e6;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
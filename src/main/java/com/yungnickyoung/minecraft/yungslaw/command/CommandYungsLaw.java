@@ -0,0 +1,129 @@
+package com.yungnickyoung.minecraft.yungslaw.command;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.benchmark.LiveBenchmark;
+import com.yungnickyoung.minecraft.yungslaw.corpus.GoldenCorpus;
+import com.yungnickyoung.minecraft.yungslaw.world.sink.ChunkResender;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.Style;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextFormatting;
+import net.minecraft.world.WorldServer;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Operator tools for YUNG's Law.
+ *   /yungslaw corpus export <label> - saves the chunk you're in, with its neighbours, to the golden corpus
+ *   /yungslaw corpus verify         - replays the golden corpus through every engine
+ *   /yungslaw bench [engine] [radius] - times the current engine, and optionally another (including parallel and banded),
+ *                                       over the loaded chunks of your dimension without writing anything
+ *   /yungslaw stats                   - shows how replacements have reached players since startup, with estimated packet sizes
+ */
+public class CommandYungsLaw extends CommandBase {
+    @Override
+    public String getName() {
+        return "yungslaw";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender) {
+        return "/yungslaw <corpus <export <label>|verify>|bench [engine] [radius]|stats>";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 2;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (args.length >= 2 && args[0].equals("corpus")) {
+            if (args[1].equals("export") && args.length == 3) {
+                exportCorpus(sender, args[2]);
+                return;
+            }
+            if (args[1].equals("verify") && args.length == 2) {
+                verifyCorpus(sender);
+                return;
+            }
+        }
+        if (args.length >= 1 && args.length <= 3 && args[0].equals("bench")) {
+            bench(sender, args);
+            return;
+        }
+        if (args.length == 1 && args[0].equals("stats")) {
+            send(sender, "Chunk updates: " + ChunkResender.getStats(), TextFormatting.GRAY);
+            return;
+        }
+        throw new WrongUsageException(getUsage(sender));
+    }
+
+    @Override
+    public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos) {
+        if (args.length == 1) return getListOfStringsMatchingLastWord(args, "corpus", "bench", "stats");
+        if (args.length == 2 && args[0].equals("corpus")) return getListOfStringsMatchingLastWord(args, "export", "verify");
+        if (args.length == 2 && args[0].equals("bench")) {
+            return getListOfStringsMatchingLastWord(args, LiveBenchmark.getEngineNames());
+        }
+        return Collections.emptyList();
+    }
+
+    private void exportCorpus(ICommandSender sender, String label) throws CommandException {
+        if (!label.matches("[A-Za-z0-9_.-]+")) throw new CommandException("Snapshot labels may only use letters, digits, '_', '.' and '-'");
+
+        BlockPos pos = sender.getPosition();
+        try {
+            File file = GoldenCorpus.export(label, sender.getEntityWorld(), pos.getX() >> 4, pos.getZ() >> 4);
+            send(sender, "Saved chunk (" + (pos.getX() >> 4) + ", " + (pos.getZ() >> 4) + ") to " + file.getName(), TextFormatting.GREEN);
+        } catch (IOException e) {
+            YungsLaw.LOGGER.error("Unable to export corpus snapshot {}: {}", label, e);
+            throw new CommandException("Unable to export snapshot: " + e.getMessage());
+        }
+    }
+
+    private void verifyCorpus(ICommandSender sender) throws CommandException {
+        List<GoldenCorpus.Result> results;
+        try {
+            results = GoldenCorpus.verify();
+        } catch (IOException e) {
+            YungsLaw.LOGGER.error("Unable to read corpus: {}", e);
+            throw new CommandException("Unable to read corpus: " + e.getMessage());
+        }
+
+        int failed = 0;
+        for (GoldenCorpus.Result result : results) {
+            YungsLaw.LOGGER.info("Corpus {}", result);
+            send(sender, result.toString(), result.passed() ? (result.stale ? TextFormatting.YELLOW : TextFormatting.GRAY) : TextFormatting.RED);
+            if (!result.passed()) failed++;
+        }
+
+        send(sender, results.size() + " snapshots verified, " + failed + " failed", failed == 0 ? TextFormatting.GREEN : TextFormatting.RED);
+    }
+
+    private void bench(ICommandSender sender, String[] args) throws CommandException {
+        if (!(sender.getEntityWorld() instanceof WorldServer)) throw new CommandException("Benchmarks can only run on the server");
+
+        String alternative = args.length >= 2 ? args[1].toLowerCase(Locale.ENGLISH) : null;
+        if (alternative != null && !LiveBenchmark.getEngineNames().contains(alternative)) throw new CommandException("Unknown engine " + args[1]);
+        Integer radius = args.length == 3 ? parseInt(args[2], 0, LiveBenchmark.MAX_RADIUS) : null;
+
+        if (!LiveBenchmark.start(sender, (WorldServer) sender.getEntityWorld(), alternative, radius)) {
+            throw new CommandException("A benchmark is already running");
+        }
+    }
+
+    static void send(ICommandSender sender, String message, TextFormatting color) {
+        sender.sendMessage(new TextComponentString(message).setStyle(new Style().setColor(color)));
+    }
+}
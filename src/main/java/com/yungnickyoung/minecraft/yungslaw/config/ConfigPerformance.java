@@ -0,0 +1,88 @@
+package com.yungnickyoung.minecraft.yungslaw.config;
+
+import com.yungnickyoung.minecraft.yungslaw.world.engine.EngineType;
+import net.minecraftforge.common.config.Config;
+
+public class ConfigPerformance {
+    @Config.Name("Engine")
+    @Config.Comment(
+        "The engine used to decide which blocks to replace. All engines produce the same world.\n" +
+        "AUTO picks SLAB for Max Altitudes of at least the Slab Engine Minimum Altitude, so memory use doesn't grow with height.\n" +
+        "Below that, it picks PYRAMID for Generation Distances of at least the Pyramid Engine Minimum Distance, and SPARSE otherwise.\n" +
+        "SPARSE measures how common Safe Blocks are in each chunk, and switches to SLAB if they are too common for it to be faster."
+    )
+    public EngineType engine = EngineType.AUTO;
+
+    @Config.Name("Pyramid Engine Minimum Distance")
+    @Config.Comment("Minimum Generation Distance at which the AUTO engine switches to the PYRAMID engine.")
+    @Config.RangeInt(min = 0)
+    public int pyramidMinDistance = 8;
+
+    @Config.Name("Slab Engine Minimum Altitude")
+    @Config.Comment("Minimum Max Altitude at which the AUTO engine switches to the SLAB engine.")
+    @Config.RangeInt(min = 0)
+    public int slabMinAltitude = 128;
+
+    @Config.Name("Enable ChunkPrimer Stage Processing")
+    @Config.Comment(
+        "If enabled, Replacement Mode runs as soon as a chunk's terrain and caves are generated, before the chunk is added to the world.\n" +
+        "This avoids all lighting and block update costs, but blocks placed later during population (structures, dungeons, lakes, ores)\n" +
+        "are not considered, and mods that expect a specific chunk generator class may not work. Ore Deletion Mode is unaffected."
+    )
+    @Config.RequiresWorldRestart
+    public boolean enablePrimerStage = false;
+
+    @Config.Name("ChunkPrimer Stage Border Mode")
+    @Config.Comment(
+        "How ChunkPrimer Stage Processing handles padding in neighbouring chunks that haven't been generated yet.\n" +
+        "CONSERVATIVE treats them as Safe Blocks. Blocks within the Generation Distance of such a neighbour are never revisited,\n" +
+        "so they stay unreplaced for good.\n" +
+        "REGENERATE generates their terrain again to read it, which gives full results. This runs the whole chunk generator,\n" +
+        "structure generators included, for up to 8 missing neighbours of every chunk at the edge of the explored area,\n" +
+        "which can cost several times as much as generating the chunk itself."
+    )
+    @Config.RequiresWorldRestart
+    public PrimerBorderMode primerBorderMode = PrimerBorderMode.CONSERVATIVE;
+
+    @Config.Name("Enable No-Cascade Mode")
+    @Config.Comment(
+        "If enabled, blocks are only read from chunks that are already loaded, so YUNG's Law never causes other chunks to generate.\n" +
+        "Blocks in unloaded chunks are treated as Safe Blocks, so some blocks near chunk borders may be left unreplaced.\n" +
+        "This only matters for Generation Distances above 8, since smaller ones stay within the chunks being populated."
+    )
+    public boolean enableNoCascade = false;
+
+    @Config.Name("Enable Parallel Processing")
+    @Config.Comment(
+        "If enabled, chunks with a large volume to process are split into Y slabs that are processed on several threads at once.\n" +
+        "Blocks are still placed on the server thread. Smaller volumes are always processed on the server thread,\n" +
+        "since splitting them up costs more than it saves."
+    )
+    public boolean enableParallel = true;
+
+    @Config.Name("Parallel Processing Minimum Volume")
+    @Config.Comment(
+        "Minimum number of blocks read for a chunk, including its padding, before Parallel Processing is used.\n" +
+        "The default is reached with a Max Altitude of 255 and a Generation Distance of 8 or more."
+    )
+    @Config.RangeInt(min = 0)
+    public int parallelMinVolume = 262144;
+
+    @Config.Name("Batch Spawn Area Processing")
+    @Config.Comment(
+        "If enabled, chunks populated while the server prepares the spawn area are collected and processed together once\n" +
+        "the spawn area is ready, in large batches that use Parallel Processing. This shortens server startup.\n" +
+        "Since these chunks are processed after all of their neighbours are populated, blocks placed by later population\n" +
+        "(e.g. trees or other mods' features) are taken into account, so results may differ slightly from normal processing."
+    )
+    public boolean enableSpawnBatch = false;
+
+    @Config.Name("Skip Overwritten Ore Generation")
+    @Config.Comment(
+        "If enabled, vanilla ore and stone veins (dirt, gravel, granite, etc.) that Replacement Mode would overwrite are never placed.\n" +
+        "All other features are placed exactly as before. Veins are judged when ores are generated, so a vein that only\n" +
+        "survives because of a Safe Block placed later in population (e.g. a spring) may occasionally be missing.\n" +
+        "Has no effect in Ore Deletion Mode or with ChunkPrimer Stage Processing."
+    )
+    public boolean enableOreGenFilter = false;
+}
@@ -11,6 +11,17 @@ public class ConfigReplacement {
     @Config.RequiresWorldRestart
     public int genDistance = 3;
 
+    @Config.Name("Depth Bands")
+    @Config.Comment(
+        "Different Hard Blocks and Generation Distances for different depths, each written as belowY,hardBlock,genDistance.\n" +
+        "A band applies to every block below its Y value. Where bands overlap, the deepest one is used.\n" +
+        "The Generation Distance may be left out, in which case the usual one is used.\n" +
+        "For example, [\"20,minecraft:stone,2\", \"10,minecraft:obsidian,4\"] uses stone below y=20 and obsidian below y=10.\n" +
+        "The Hard Block of a band is only used in Replacement Mode. All bands are processed together, in a single pass."
+    )
+    @Config.RequiresWorldRestart
+    public String[] depthBands = {};
+
     @Config.Name("Safe Blocks")
     @Config.Comment("Blocks that will not be replaced. Any blocks within the Generation Distance of a Safe Block will also not be replaced.")
     @Config.RequiresWorldRestart
@@ -21,6 +32,18 @@ public class ConfigReplacement {
     @Config.RequiresWorldRestart
     public String[] untouchableBlocks = {"minecraft:bedrock"};
 
+    @Config.Name("Structure Handling")
+    @Config.Comment(
+        "How blocks inside the bounding boxes of generated structures (mineshafts, strongholds, villages, etc.) are treated.\n" +
+        "NONE: structures are treated like any other blocks.\n" +
+        "SAFE: every block inside a structure is a Safe Block, so nothing in or near it is replaced.\n" +
+        "UNTOUCHABLE: every block inside a structure is an Untouchable Block, so nothing in it is replaced.\n" +
+        "Only structures whose generators are announced through Forge's InitMapGenEvent are found, which covers vanilla's\n" +
+        "and those of mods that use it, but not dungeons, other decorations or structures generated any other way."
+    )
+    @Config.RequiresWorldRestart
+    public String structureHandling = "NONE";
+
     @Config.Name("Max Altitude")
     @Config.Comment("Maximum altitude at which block replacement or ore deletion can occur.")
     @Config.RequiresWorldRestart
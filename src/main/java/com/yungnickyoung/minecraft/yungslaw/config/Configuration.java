@@ -23,4 +23,12 @@ public class Configuration {
     @Config.Comment("Support for modded ores when using Ore Deletion Mode.")
     @Config.RequiresWorldRestart
     public static ConfigModCompat modCompat = new ConfigModCompat();
+
+    @Config.Name("Performance Settings")
+    @Config.Comment(
+        "Settings for tuning how YUNG's Law processes chunks.\n" +
+        "The engine and Parallel Processing settings never change the blocks generated. The other options trade some accuracy\n" +
+        "for speed and can change the blocks generated, as described in each of their comments."
+    )
+    public static ConfigPerformance performance = new ConfigPerformance();
 }
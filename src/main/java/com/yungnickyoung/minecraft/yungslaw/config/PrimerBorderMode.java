@@ -0,0 +1,11 @@
+package com.yungnickyoung.minecraft.yungslaw.config;
+
+/**
+ * How ChunkPrimer Stage Processing reads padding from neighbouring chunks that aren't loaded yet.
+ */
+public enum PrimerBorderMode {
+    /** Treat missing neighbours as Safe Blocks, so nothing near them is ever replaced */
+    CONSERVATIVE,
+    /** Regenerate the missing neighbours' terrain and read from that. Runs the full chunk generator for each one */
+    REGENERATE
+}
@@ -0,0 +1,43 @@
+package com.yungnickyoung.minecraft.yungslaw.config;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+
+import java.util.Locale;
+
+/**
+ * How blocks inside structure bounding boxes are treated.
+ */
+public enum StructureHandling {
+    /** Structures are classified block by block like everything else */
+    NONE(BlockClassifier.PROCESSABLE),
+    /** Every block inside a structure is a Safe Block */
+    SAFE(BlockClassifier.SAFE),
+    /** Every block inside a structure is an Untouchable Block */
+    UNTOUCHABLE(BlockClassifier.UNTOUCHABLE);
+
+    private final int value;
+
+    StructureHandling(int value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the classification value of blocks inside structures
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Parses a config value, defaulting to NONE if it is invalid.
+     */
+    public static StructureHandling fromString(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+        } catch (Exception e) {
+            YungsLaw.LOGGER.error("ERROR: Unknown Structure Handling {}. Using NONE instead...", name);
+            return NONE;
+        }
+    }
+}
@@ -22,4 +22,5 @@ public class YLSettings {
     public static final String CUSTOM_CONFIG_PATH = "YungsLaw";
     public static final String BASE_CONFIG_NAME = "YungsLaw-1_12_2";
     public static final String VERSION_PATH = "1_12_2";
+    public static final String CORPUS_PATH = "corpus";
 }
@@ -27,12 +27,18 @@ public class ConfigHolder {
         hardBlock = new ConfigOption<>("Hard Block", Configuration.replacementSettings.replacementMode.hardBlock)
             .setCategory("general.Replacement Settings.Replacement Mode Settings")
             .addToMap(properties);
+        depthBands = new ConfigOption<>("Depth Bands", Configuration.replacementSettings.depthBands)
+            .setCategory("general.Replacement Settings")
+            .addToMap(properties);
         safeBlocks = new ConfigOption<>("Safe Blocks", Configuration.replacementSettings.safeBlocks)
             .setCategory("general.Replacement Settings")
             .addToMap(properties);
         untouchableBlocks = new ConfigOption<>("Untouchable Blocks", Configuration.replacementSettings.untouchableBlocks)
             .setCategory("general.Replacement Settings")
             .addToMap(properties);
+        structureHandling = new ConfigOption<>("Structure Handling", Configuration.replacementSettings.structureHandling)
+            .setCategory("general.Replacement Settings")
+            .addToMap(properties);
         maxAltitude = new ConfigOption<>("Max Altitude", Configuration.replacementSettings.maxAltitude)
             .setCategory("general.Replacement Settings")
             .addToMap(properties);
@@ -49,8 +55,10 @@ public class ConfigHolder {
 
     public ConfigOption<Integer>  genDistance;
     public ConfigOption<String>   hardBlock;
+    public ConfigOption<String[]> depthBands;
     public ConfigOption<String[]> safeBlocks;
     public ConfigOption<String[]> untouchableBlocks;
+    public ConfigOption<String>   structureHandling;
     public ConfigOption<Integer>  maxAltitude;
     public ConfigOption<Boolean>  enableLiquidSafety;
     public ConfigOption<Boolean>  enableOreDeletion;
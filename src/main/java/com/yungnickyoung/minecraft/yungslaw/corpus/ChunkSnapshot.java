@@ -0,0 +1,259 @@
+package com.yungnickyoung.minecraft.yungslaw.corpus;
+
+import com.yungnickyoung.minecraft.yungslaw.config.StructureHandling;
+import com.yungnickyoung.minecraft.yungslaw.config.util.ConfigHolder;
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import com.yungnickyoung.minecraft.yungslaw.world.DepthProfile;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.BandedEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.GridEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementRegion;
+import com.yungnickyoung.minecraft.yungslaw.world.source.ChunkClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.structure.StructureClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.structure.StructureIndex;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.NibbleArray;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraft.world.gen.structure.StructureBoundingBox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A chunk's block storage along with its 3x3 neighbourhood, captured from a real world.
+ *
+ * The snapshot's inner area is the centre chunk, so Generation Distances of up to 16 stay within the captured chunks.
+ * Sections are stored in the same format as region files, along with the structure bounding boxes around them.
+ * Replays follow BlockGenerator: Depth Bands set each layer's Generation Distance, and Structure Handling applies to
+ * the recorded boxes. The expected replacement mask is computed with the reference engine when the snapshot is exported,
+ * along with a hash of the dimension's settings at the time, so results can only be compared while those settings are unchanged.
+ */
+public class ChunkSnapshot {
+    /** Largest Generation Distance whose padding fits within the 3x3 neighbourhood */
+    public static final int MAX_RADIUS = 16;
+    private static final int NBT_COMPOUND = 10;
+    private static final int NBT_INT_ARRAY = 11;
+
+    public final String label;
+    public final int dimension;
+    public final int chunkX;
+    public final int chunkZ;
+    public final int configHash;
+
+    /** Block storage of the 3x3 neighbourhood, indexed by (dz + 1) * 3 + (dx + 1) */
+    private final ExtendedBlockStorage[][] columns;
+    /** Bounding boxes of the structure components intersecting the 3x3 neighbourhood */
+    private final List<StructureBoundingBox> structures;
+    /** Expected replacements over the centre chunk, indexed by (y * 16 + z) * 16 + x. 1 if replaced, 0 otherwise */
+    private byte[] expected;
+
+    private ChunkSnapshot(String label, int dimension, int chunkX, int chunkZ, int configHash, ExtendedBlockStorage[][] columns,
+                          List<StructureBoundingBox> structures, byte[] expected) {
+        this.label = label;
+        this.dimension = dimension;
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.configHash = configHash;
+        this.columns = columns;
+        this.structures = structures;
+        this.expected = expected;
+    }
+
+    /**
+     * Captures a chunk and its neighbours from the world, loading them if needed, and computes the expected mask
+     * using the dimension's current settings.
+     */
+    public static ChunkSnapshot capture(String label, World world, int chunkX, int chunkZ, ConfigHolder config) {
+        ExtendedBlockStorage[][] columns = new ExtendedBlockStorage[9][];
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                Chunk chunk = world.getChunk(chunkX + dx, chunkZ + dz);
+                columns[(dz + 1) * 3 + (dx + 1)] = copyColumn(chunk.getBlockStorageArray());
+            }
+        }
+
+        List<StructureBoundingBox> structures = new ArrayList<>();
+        for (StructureBoundingBox box : StructureIndex.query(world, chunkX * 16 - 16, chunkZ * 16 - 16, chunkX * 16 + 31, chunkZ * 16 + 31)) {
+            structures.add(new StructureBoundingBox(box));
+        }
+
+        ChunkSnapshot snapshot = new ChunkSnapshot(label, world.provider.getDimension(), chunkX, chunkZ, getConfigHash(config), columns, structures, null);
+        snapshot.expected = snapshot.replay(getReferenceEngine(getRadii(config)), new BlockClassifier(config), config);
+        return snapshot;
+    }
+
+    /**
+     * Runs an engine over the snapshot.
+     *
+     * @return the replacement mask, in the same layout as the expected mask
+     */
+    public byte[] replay(ReplacementEngine engine, BlockClassifier classifier, ConfigHolder config) {
+        final ReplacementRegion region = getRegion(classifier, config);
+        final byte[] mask = new byte[16 * 16 * region.maxAltitude];
+        engine.process(region, createSource(classifier, region, config),
+            (x, y, z, value) -> mask[(y * 16 + (z - region.zStart)) * 16 + (x - region.xStart)] = 1);
+        return mask;
+    }
+
+    /**
+     * @return the region of the centre chunk, padded by the largest Generation Distance of the dimension's Depth Bands
+     */
+    public ReplacementRegion getRegion(BlockClassifier classifier, ConfigHolder config) {
+        final int[] radii = getRadii(config);
+        return new ReplacementRegion(chunkX * 16, chunkZ * 16, 16, 16, Arrays.stream(radii).max().orElse(0), radii.length, classifier.getTargetValue());
+    }
+
+    /**
+     * @return the Generation Distance of each Y layer up to Max Altitude, after applying Depth Bands, capped at MAX_RADIUS
+     */
+    public static int[] getRadii(ConfigHolder config) {
+        return Arrays.stream(DepthProfile.of(config).getRadii()).map(radius -> Math.min(radius, MAX_RADIUS)).toArray();
+    }
+
+    /**
+     * @return the engine that decides the expected mask: GRID, or BANDED if the Generation Distance varies with depth
+     */
+    public static ReplacementEngine getReferenceEngine(int[] radii) {
+        return Arrays.stream(radii).anyMatch(radius -> radius != radii[0]) ? new BandedEngine(radii) : new GridEngine();
+    }
+
+    /**
+     * Creates a fresh source over the snapshot's chunks, so each replay classifies from scratch.
+     * The dimension's Structure Handling is applied to the recorded structures.
+     */
+    public ClassSource createSource(BlockClassifier classifier, ReplacementRegion region, ConfigHolder config) {
+        ChunkClassSource source = new ChunkClassSource(classifier, region, BlockClassifier.SAFE);
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                source.setColumn(chunkX + dx, chunkZ + dz, columns[(dz + 1) * 3 + (dx + 1)]);
+            }
+        }
+        return StructureClassSource.wrap(region, source, structures, StructureHandling.fromString(config.structureHandling.get()));
+    }
+
+    public byte[] getExpected() {
+        return expected;
+    }
+
+    /**
+     * Classifies the snapshot's padded region, so it can be replayed without Minecraft.
+     * The expected mask is only meaningful while the settings are those the snapshot was exported with.
+     */
+    public ClassSnapshot classify(BlockClassifier classifier, ConfigHolder config) {
+        final ReplacementRegion region = getRegion(classifier, config);
+        return ClassSnapshot.of(label, region, createSource(classifier, region, config), getRadii(config), expected);
+    }
+
+    /**
+     * Hashes every setting that affects which blocks get replaced.
+     */
+    public static int getConfigHash(ConfigHolder config) {
+        return Objects.hash(
+            Math.min(config.genDistance.get(), MAX_RADIUS),
+            config.maxAltitude.get(),
+            config.enableLiquidSafety.get(),
+            config.enableOreDeletion.get(),
+            Arrays.hashCode(config.depthBands.get()),
+            StructureHandling.fromString(config.structureHandling.get()).name(),
+            Arrays.hashCode(config.safeBlocks.get()),
+            Arrays.hashCode(config.untouchableBlocks.get()),
+            Arrays.hashCode(config.oreWhitelist.get()));
+    }
+
+    public NBTTagCompound writeToNBT() {
+        NBTTagCompound tag = new NBTTagCompound();
+        tag.setString("Label", label);
+        tag.setInteger("Dimension", dimension);
+        tag.setInteger("ChunkX", chunkX);
+        tag.setInteger("ChunkZ", chunkZ);
+        tag.setInteger("ConfigHash", configHash);
+        tag.setByteArray("Expected", expected);
+
+        NBTTagList columnList = new NBTTagList();
+        for (ExtendedBlockStorage[] column : columns) {
+            NBTTagList sectionList = new NBTTagList();
+            for (ExtendedBlockStorage storage : column) {
+                if (storage == Chunk.NULL_BLOCK_STORAGE) continue;
+
+                // Same layout as AnvilChunkLoader
+                byte[] blocks = new byte[4096];
+                NibbleArray data = new NibbleArray();
+                NibbleArray add = storage.getData().getDataForNBT(blocks, data);
+
+                NBTTagCompound sectionTag = new NBTTagCompound();
+                sectionTag.setByte("Y", (byte) (storage.getYLocation() >> 4 & 255));
+                sectionTag.setByteArray("Blocks", blocks);
+                sectionTag.setByteArray("Data", data.getData());
+                if (add != null) sectionTag.setByteArray("Add", add.getData());
+                sectionList.appendTag(sectionTag);
+            }
+
+            NBTTagCompound columnTag = new NBTTagCompound();
+            columnTag.setTag("Sections", sectionList);
+            columnList.appendTag(columnTag);
+        }
+        tag.setTag("Columns", columnList);
+
+        NBTTagList structureList = new NBTTagList();
+        for (StructureBoundingBox box : structures) structureList.appendTag(box.toNBTTagIntArray());
+        tag.setTag("Structures", structureList);
+
+        return tag;
+    }
+
+    public static ChunkSnapshot readFromNBT(NBTTagCompound tag) {
+        ExtendedBlockStorage[][] columns = new ExtendedBlockStorage[9][];
+        NBTTagList columnList = tag.getTagList("Columns", NBT_COMPOUND);
+        for (int i = 0; i < columns.length; i++) {
+            ExtendedBlockStorage[] column = new ExtendedBlockStorage[16];
+            NBTTagList sectionList = columnList.getCompoundTagAt(i).getTagList("Sections", NBT_COMPOUND);
+            for (int j = 0; j < sectionList.tagCount(); j++) {
+                NBTTagCompound sectionTag = sectionList.getCompoundTagAt(j);
+                int y = sectionTag.getByte("Y");
+                ExtendedBlockStorage storage = new ExtendedBlockStorage(y << 4, true);
+                NibbleArray add = sectionTag.hasKey("Add", 7) ? new NibbleArray(sectionTag.getByteArray("Add")) : null;
+                storage.getData().setDataFromNBT(sectionTag.getByteArray("Blocks"), new NibbleArray(sectionTag.getByteArray("Data")), add);
+                storage.recalculateRefCounts();
+                column[y] = storage;
+            }
+            columns[i] = column;
+        }
+
+        // Missing from snapshots exported before structures were recorded
+        List<StructureBoundingBox> structures = new ArrayList<>();
+        NBTTagList structureList = tag.getTagList("Structures", NBT_INT_ARRAY);
+        for (int i = 0; i < structureList.tagCount(); i++) {
+            structures.add(new StructureBoundingBox(structureList.getIntArrayAt(i)));
+        }
+
+        return new ChunkSnapshot(tag.getString("Label"), tag.getInteger("Dimension"), tag.getInteger("ChunkX"), tag.getInteger("ChunkZ"),
+            tag.getInteger("ConfigHash"), columns, structures, tag.getByteArray("Expected"));
+    }
+
+    /**
+     * Copies a chunk's block storage, so the snapshot isn't affected by later changes to the world.
+     */
+    private static ExtendedBlockStorage[] copyColumn(ExtendedBlockStorage[] column) {
+        ExtendedBlockStorage[] copy = new ExtendedBlockStorage[column.length];
+        for (int sectionY = 0; sectionY < column.length; sectionY++) {
+            ExtendedBlockStorage storage = column[sectionY];
+            if (storage == Chunk.NULL_BLOCK_STORAGE) continue;
+
+            copy[sectionY] = new ExtendedBlockStorage(storage.getYLocation(), true);
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        copy[sectionY].set(x, y, z, storage.get(x, y, z));
+                    }
+                }
+            }
+        }
+        return copy;
+    }
+}
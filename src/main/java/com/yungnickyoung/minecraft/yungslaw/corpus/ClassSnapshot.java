@@ -0,0 +1,159 @@
+package com.yungnickyoung.minecraft.yungslaw.corpus;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementRegion;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The classified blocks of a snapshot's padded region, along with its expected replacement mask.
+ *
+ * Unlike a ChunkSnapshot, this holds block classes rather than block states, so it can be replayed without Minecraft,
+ * e.g. by unit tests. One is exported next to every chunk snapshot, classified with the dimension's settings at the time.
+ * Each Y layer may have its own Generation Distance, for checking Depth Bands.
+ */
+public class ClassSnapshot {
+    private static final int MAGIC = 0x594C4353;
+    private static final int VERSION = 1;
+
+    public final String label;
+    public final int targetValue;
+    /** Generation Distance of each Y layer, from y = 0 up to Max Altitude */
+    private final int[] radii;
+    private final int radius;
+    /** Classes of the padded region, indexed by (y * paddedZ + z) * paddedX + x */
+    private final byte[] values;
+    /** Expected replacements over the inner chunk, indexed by (y * 16 + z) * 16 + x. 1 if replaced, 0 otherwise */
+    private final byte[] expected;
+
+    private ClassSnapshot(String label, int targetValue, int[] radii, byte[] values, byte[] expected) {
+        this.label = label;
+        this.targetValue = targetValue;
+        this.radii = radii;
+        this.radius = Arrays.stream(radii).max().orElse(0);
+        this.values = values;
+        this.expected = expected;
+
+        ReplacementRegion region = getRegion();
+        if (values.length != region.getPaddedSizeX() * region.getPaddedSizeZ() * region.getPaddedHeight() || expected.length != 16 * 16 * radii.length) {
+            throw new IllegalArgumentException("Snapshot " + label + " doesn't match its region");
+        }
+    }
+
+    /**
+     * Classifies the padded area of a single chunk region.
+     *
+     * @param radii Generation Distance of each Y layer, whose largest must be the region's radius
+     * @param expected Expected replacement mask, indexed by (y * 16 + z) * 16 + x within the region's inner area
+     */
+    public static ClassSnapshot of(String label, ReplacementRegion region, ClassSource source, int[] radii, byte[] expected) {
+        if (region.sizeX != 16 || region.sizeZ != 16 || radii.length != region.maxAltitude || Arrays.stream(radii).max().orElse(0) != region.radius) {
+            throw new IllegalArgumentException("Snapshots cover a single chunk up to Max Altitude");
+        }
+
+        final int paddedX = region.getPaddedSizeX();
+        final int paddedZ = region.getPaddedSizeZ();
+        final byte[] values = new byte[paddedX * paddedZ * region.getPaddedHeight()];
+        for (int y = 0; y < region.getPaddedHeight(); y++) {
+            for (int z = 0; z < paddedZ; z++) {
+                for (int x = 0; x < paddedX; x++) {
+                    values[(y * paddedZ + z) * paddedX + x] = (byte) source.getValue(region.getOuterXStart() + x, y, region.getOuterZStart() + z);
+                }
+            }
+        }
+        return new ClassSnapshot(label, region.targetValue, radii.clone(), values, expected.clone());
+    }
+
+    /**
+     * @return the snapshot's region. Its inner area is the chunk at the origin
+     */
+    public ReplacementRegion getRegion() {
+        return new ReplacementRegion(0, 0, 16, 16, radius, radii.length, targetValue);
+    }
+
+    public int[] getRadii() {
+        return radii.clone();
+    }
+
+    /**
+     * @return true if the Generation Distance differs between layers, in which case only the BANDED engine applies
+     */
+    public boolean hasVariableRadius() {
+        return Arrays.stream(radii).anyMatch(layerRadius -> layerRadius != radius);
+    }
+
+    public byte[] getExpected() {
+        return expected.clone();
+    }
+
+    /**
+     * Creates a source over the snapshot's classes. Anything outside the padded region is a Safe Block.
+     */
+    public ClassSource createSource() {
+        final ReplacementRegion region = getRegion();
+        final int outerXStart = region.getOuterXStart();
+        final int outerZStart = region.getOuterZStart();
+        final int paddedX     = region.getPaddedSizeX();
+        final int paddedZ     = region.getPaddedSizeZ();
+        final int height      = region.getPaddedHeight();
+
+        return (x, y, z) -> {
+            final int localX = x - outerXStart, localZ = z - outerZStart;
+            if (localX < 0 || localX >= paddedX || localZ < 0 || localZ >= paddedZ || y < 0 || y >= height) return BlockClassifier.SAFE;
+            return values[(y * paddedZ + localZ) * paddedX + localX];
+        };
+    }
+
+    /**
+     * Runs an engine over the snapshot.
+     *
+     * @return the replacement mask, in the same layout as the expected mask
+     */
+    public byte[] replay(ReplacementEngine engine) {
+        final ReplacementRegion region = getRegion();
+        final byte[] mask = new byte[16 * 16 * region.maxAltitude];
+        engine.process(region, createSource(), (x, y, z, value) -> mask[(y * 16 + (z - region.zStart)) * 16 + (x - region.xStart)] = 1);
+        return mask;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        GZIPOutputStream compressed = new GZIPOutputStream(out);
+        DataOutputStream data = new DataOutputStream(compressed);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeUTF(label);
+        data.writeInt(targetValue);
+        data.writeInt(radii.length);
+        for (int layerRadius : radii) data.writeByte(layerRadius);
+        data.write(values);
+        data.write(expected);
+        data.flush();
+        compressed.finish();
+    }
+
+    public static ClassSnapshot read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new GZIPInputStream(in));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) throw new IOException("Not a class snapshot");
+
+        final String label = data.readUTF();
+        final int targetValue = data.readInt();
+        final int[] radii = new int[data.readInt()];
+        for (int y = 0; y < radii.length; y++) radii[y] = data.readUnsignedByte();
+
+        final int radius = Arrays.stream(radii).max().orElse(0);
+        final byte[] values = new byte[(16 + 2 * radius) * (16 + 2 * radius) * (radii.length + radius)];
+        final byte[] expected = new byte[16 * 16 * radii.length];
+        data.readFully(values);
+        data.readFully(expected);
+        return new ClassSnapshot(label, targetValue, radii, values, expected);
+    }
+}
@@ -0,0 +1,168 @@
+package com.yungnickyoung.minecraft.yungslaw.corpus;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.config.YLSettings;
+import com.yungnickyoung.minecraft.yungslaw.config.util.ConfigHolder;
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import com.yungnickyoung.minecraft.yungslaw.world.BlockGenerator;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.BandedEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.EngineType;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ParallelEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementEngine;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.Loader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A directory of chunk snapshots used to check that every engine still makes the expected decisions on real terrain.
+ * Snapshots are exported in game at interesting spots (caves, ravines, oceans, lava lakes, modded ores, bedrock)
+ * and replayed through each engine, which is also timed.
+ * Every snapshot is also exported as a ClassSnapshot, which tests replay without Minecraft. Copying those into
+ * src/test/resources/corpus adds them to the build's tests.
+ */
+public class GoldenCorpus {
+    /** Number of timed replays per engine and snapshot. The median is reported */
+    private static final int TIMED_RUNS = 5;
+
+    public static File getDirectory() {
+        return new File(new File(Loader.instance().getConfigDir(), YLSettings.CUSTOM_CONFIG_PATH), YLSettings.CORPUS_PATH);
+    }
+
+    /**
+     * Captures the given chunk and its neighbours into the corpus.
+     *
+     * @return the snapshot's file
+     */
+    public static File export(String label, World world, int chunkX, int chunkZ) throws IOException {
+        ConfigHolder config = BlockGenerator.getConfig(world);
+        ChunkSnapshot snapshot = ChunkSnapshot.capture(label, world, chunkX, chunkZ, config);
+
+        File directory = getDirectory();
+        if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Unable to create " + directory);
+
+        File file = new File(directory, label + ".nbt");
+        try (OutputStream out = new FileOutputStream(file)) {
+            CompressedStreamTools.writeCompressed(snapshot.writeToNBT(), out);
+        }
+        try (OutputStream out = new FileOutputStream(new File(directory, label + ".classes"))) {
+            snapshot.classify(new BlockClassifier(config), config).write(out);
+        }
+        return file;
+    }
+
+    /**
+     * Replays every snapshot in the corpus through every engine.
+     */
+    public static List<Result> verify() throws IOException {
+        List<Result> results = new ArrayList<>();
+        File[] files = getDirectory().listFiles((dir, name) -> name.endsWith(".nbt"));
+        if (files == null) return results;
+        Arrays.sort(files);
+
+        for (File file : files) {
+            ChunkSnapshot snapshot;
+            try (InputStream in = new FileInputStream(file)) {
+                snapshot = ChunkSnapshot.readFromNBT(CompressedStreamTools.readCompressed(in));
+            }
+            results.add(verify(snapshot));
+        }
+        return results;
+    }
+
+    private static Result verify(ChunkSnapshot snapshot) {
+        final ConfigHolder    config     = BlockGenerator.getConfig(snapshot.dimension);
+        final BlockClassifier classifier = new BlockClassifier(config);
+        final boolean         stale      = ChunkSnapshot.getConfigHash(config) != snapshot.configHash;
+        final int[]           radii      = ChunkSnapshot.getRadii(config);
+        final byte[]          reference  = snapshot.replay(ChunkSnapshot.getReferenceEngine(radii), classifier, config);
+
+        Result result = new Result(snapshot.label, stale);
+        for (Map.Entry<String, ReplacementEngine> engine : getEngines(radii).entrySet()) {
+            long[] nanos = new long[TIMED_RUNS];
+            byte[] mask = null;
+            for (int run = 0; run < TIMED_RUNS; run++) {
+                long start = System.nanoTime();
+                mask = snapshot.replay(engine.getValue(), classifier, config);
+                nanos[run] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+
+            boolean matches = Arrays.equals(mask, reference) && (stale || Arrays.equals(mask, snapshot.getExpected()));
+            result.engines.add(new EngineResult(engine.getKey(), matches, nanos[TIMED_RUNS / 2]));
+        }
+
+        if (!result.passed()) {
+            YungsLaw.LOGGER.error("Corpus snapshot {} failed: {}", snapshot.label, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return every engine that applies to the Generation Distance of each layer, by name: those that can be picked
+     * in the config, plus PARALLEL and BANDED. Only BANDED applies if the Generation Distance varies with depth
+     */
+    private static Map<String, ReplacementEngine> getEngines(int[] radii) {
+        Map<String, ReplacementEngine> engines = new LinkedHashMap<>();
+        if (Arrays.stream(radii).allMatch(radius -> radius == radii[0])) {
+            for (EngineType engineType : EngineType.values()) {
+                if (engineType != EngineType.AUTO) engines.put(engineType.name(), engineType.getEngine());
+            }
+            engines.put("PARALLEL", new ParallelEngine());
+        }
+        engines.put("BANDED", new BandedEngine(radii));
+        return engines;
+    }
+
+    public static class Result {
+        public final String label;
+        /** True if the dimension's settings changed since export, so only engine equivalence is checked */
+        public final boolean stale;
+        public final List<EngineResult> engines = new ArrayList<>();
+
+        private Result(String label, boolean stale) {
+            this.label = label;
+            this.stale = stale;
+        }
+
+        public boolean passed() {
+            return engines.stream().allMatch(engine -> engine.matches);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(label).append(stale ? " (settings changed)" : "").append(':');
+            for (EngineResult engine : engines) builder.append(' ').append(engine);
+            return builder.toString();
+        }
+    }
+
+    public static class EngineResult {
+        public final String engine;
+        public final boolean matches;
+        public final long medianNanos;
+
+        private EngineResult(String engine, boolean matches, long medianNanos) {
+            this.engine = engine;
+            this.matches = matches;
+            this.medianNanos = medianNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %s %.2fms", engine, matches ? "ok" : "MISMATCH", medianNanos / 1.0e6);
+        }
+    }
+}
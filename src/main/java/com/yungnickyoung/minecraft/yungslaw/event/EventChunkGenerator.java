@@ -0,0 +1,18 @@
+package com.yungnickyoung.minecraft.yungslaw.event;
+
+import com.yungnickyoung.minecraft.yungslaw.config.Configuration;
+import com.yungnickyoung.minecraft.yungslaw.world.BlockGenerator;
+import com.yungnickyoung.minecraft.yungslaw.world.PrimerChunkGenerator;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+public class EventChunkGenerator {
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        // Wrap the chunk generator before any chunks are generated, including the spawn area
+        if (Configuration.performance.enablePrimerStage && event.getWorld() instanceof WorldServer && BlockGenerator.isDimensionWhitelisted(event.getWorld())) {
+            PrimerChunkGenerator.install((WorldServer) event.getWorld());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.yungnickyoung.minecraft.yungslaw.event;
+
+import com.yungnickyoung.minecraft.yungslaw.world.sink.ChunkResender;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+public class EventChunkResend {
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        // Send replacements made this tick to players who already have the chunks
+        if (event.phase == TickEvent.Phase.END) ChunkResender.flush();
+    }
+}
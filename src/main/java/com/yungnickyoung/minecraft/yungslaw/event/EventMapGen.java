@@ -0,0 +1,17 @@
+package com.yungnickyoung.minecraft.yungslaw.event;
+
+import com.yungnickyoung.minecraft.yungslaw.world.structure.StructureIndex;
+import net.minecraft.world.gen.structure.MapGenStructure;
+import net.minecraftforge.event.terraingen.InitMapGenEvent;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+public class EventMapGen {
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void onInitMapGen(InitMapGenEvent event) {
+        // Keep track of structure generators for Structure Handling
+        if (event.getNewGen() instanceof MapGenStructure) {
+            StructureIndex.register((MapGenStructure) event.getNewGen());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.yungnickyoung.minecraft.yungslaw.event;
+
+import com.yungnickyoung.minecraft.yungslaw.config.Configuration;
+import com.yungnickyoung.minecraft.yungslaw.world.BlockGenerator;
+import com.yungnickyoung.minecraft.yungslaw.world.OreGenFilter;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.terraingen.OreGenEvent;
+import net.minecraftforge.fml.common.eventhandler.Event;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+public class EventOreGen {
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void onGenerateMinable(OreGenEvent.GenerateMinable event) {
+        // Leave ore types other mods have already decided on alone
+        if (!Configuration.performance.enableOreGenFilter || event.getResult() != Event.Result.DEFAULT) return;
+        if (!(event.getWorld() instanceof WorldServer) || !BlockGenerator.isDimensionWhitelisted(event.getWorld())) return;
+
+        if (OreGenFilter.generate((WorldServer) event.getWorld(), event.getRand(), event.getPos(), event.getType(), event.getGenerator())) {
+            event.setResult(Event.Result.DENY);
+        }
+    }
+}
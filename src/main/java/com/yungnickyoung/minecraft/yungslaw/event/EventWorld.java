@@ -1,6 +1,9 @@
 package com.yungnickyoung.minecraft.yungslaw.event;
 
 import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.world.OreGenFilter;
+import com.yungnickyoung.minecraft.yungslaw.world.sink.ChunkResender;
+import com.yungnickyoung.minecraft.yungslaw.world.structure.StructureIndex;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
@@ -9,5 +12,10 @@ public class EventWorld {
     public void onWorldUnload(WorldEvent.Unload event) {
         // Remove config for dimension on unload to ensure updated config settings are always used
         YungsLaw.configMap.remove(event.getWorld().provider.getDimension());
+
+        // Don't hold on to the unloaded world's chunks
+        OreGenFilter.reset();
+        ChunkResender.reset(event.getWorld());
+        StructureIndex.reset(event.getWorld());
     }
 }
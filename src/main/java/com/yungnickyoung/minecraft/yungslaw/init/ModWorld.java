@@ -1,6 +1,10 @@
 package com.yungnickyoung.minecraft.yungslaw.init;
 
 import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.event.EventChunkResend;
+import com.yungnickyoung.minecraft.yungslaw.event.EventChunkGenerator;
+import com.yungnickyoung.minecraft.yungslaw.event.EventMapGen;
+import com.yungnickyoung.minecraft.yungslaw.event.EventOreGen;
 import com.yungnickyoung.minecraft.yungslaw.event.EventWorld;
 import com.yungnickyoung.minecraft.yungslaw.world.BlockGenerator;
 import net.minecraftforge.common.MinecraftForge;
@@ -10,6 +14,18 @@ public class ModWorld {
     public static void preInit() {
         // Register generator
         GameRegistry.registerWorldGenerator(YungsLaw.generator = new BlockGenerator(), Integer.MAX_VALUE);
+
+        // Register chunk generator wrapper for ChunkPrimer Stage Processing
+        MinecraftForge.EVENT_BUS.register(new EventChunkGenerator());
+
+        // Register ore generation filter
+        MinecraftForge.ORE_GEN_BUS.register(new EventOreGen());
+
+        // Register structure generator tracking for Structure Handling
+        MinecraftForge.TERRAIN_GEN_BUS.register(new EventMapGen());
+
+        // Register the end of tick flush for replacements in chunks players already have
+        MinecraftForge.EVENT_BUS.register(new EventChunkResend());
     }
 
     public static void init() {
@@ -0,0 +1,81 @@
+package com.yungnickyoung.minecraft.yungslaw.world;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.config.util.ConfigHolder;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Classifies block states against a dimension's Safe, Untouchable and Ore rules.
+ * I don't use an enum for the values to avoid additional overhead cost in the engines' inner loops.
+ */
+public class BlockClassifier {
+    /** Block should not be processed */
+    public static final int UNTOUCHABLE = -1;
+    /** Safe Block */
+    public static final int SAFE = 0;
+    /** Block within range of a Safe Block */
+    public static final int NEAR_SAFE = 1;
+    /** Block can be processed */
+    public static final int PROCESSABLE = 2;
+    /** Ore block (for Ore Deletion Mode) */
+    public static final int ORE = 3;
+
+    private final boolean          enableOreDeletion;
+    private final boolean          enableLiquidSafety;
+    private final Set<IBlockState> whitelistedOreBlocks;
+    private final Set<IBlockState> safeBlocks;
+    private final Set<IBlockState> untouchableBlocks;
+
+    public BlockClassifier(ConfigHolder config) {
+        this.enableOreDeletion    = config.enableOreDeletion.get();
+        this.enableLiquidSafety   = config.enableLiquidSafety.get();
+        this.whitelistedOreBlocks = getBlockSetFromNames(config.oreWhitelist.get());
+        this.safeBlocks           = getBlockSetFromNames(config.safeBlocks.get());
+        this.untouchableBlocks    = getBlockSetFromNames(config.untouchableBlocks.get());
+    }
+
+    public int classify(IBlockState state) {
+        if (safeBlocks.contains(state) || (enableLiquidSafety && state.getMaterial().isLiquid())) return SAFE;
+        else if (untouchableBlocks.contains(state)) return UNTOUCHABLE;
+        else if (enableOreDeletion && whitelistedOreBlocks.contains(state)) return ORE;
+        else return PROCESSABLE;
+    }
+
+    /**
+     * @return the value of blocks that get replaced when far enough from Safe Blocks.
+     *         Ores in Ore Deletion Mode, otherwise any processable block.
+     */
+    public int getTargetValue() {
+        return enableOreDeletion ? ORE : PROCESSABLE;
+    }
+
+    public boolean isOreDeletionEnabled() {
+        return enableOreDeletion;
+    }
+
+    private static Set<IBlockState> getBlockSetFromNames(String[] blockNames) {
+        Set<IBlockState> blockStateList = new HashSet<>();
+
+        for (String blockName : blockNames) {
+            try {
+                if (blockName.indexOf('@') > -1) {
+                    String[] nameSplit = blockName.split("@", 2);
+                    Block block = Block.getBlockFromName(nameSplit[0]);
+                    if (block != null) blockStateList.add(block.getStateFromMeta(Integer.parseInt(nameSplit[1])));
+                }
+                else {
+                    Block block = Block.getBlockFromName(blockName);
+                    if (block != null) blockStateList.add(block.getDefaultState());
+                }
+            } catch (Exception e) {
+                YungsLaw.LOGGER.error("ERROR: Unable to find block {}: {}", blockName, e);
+            }
+        }
+
+        return blockStateList;
+    }
+}
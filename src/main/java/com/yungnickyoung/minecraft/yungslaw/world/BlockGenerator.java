@@ -4,145 +4,149 @@ import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
 import com.yungnickyoung.minecraft.yungslaw.config.util.ConfigHolder;
 import com.yungnickyoung.minecraft.yungslaw.config.Configuration;
 import com.yungnickyoung.minecraft.yungslaw.config.io.ConfigLoader;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.BandedEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.DecisionBuffer;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.EngineType;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ParallelEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementRegion;
+import com.yungnickyoung.minecraft.yungslaw.world.sink.WorldSink;
+import com.yungnickyoung.minecraft.yungslaw.world.source.ChunkClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.structure.StructureClassSource;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.IChunkProvider;
 import net.minecraft.world.gen.IChunkGenerator;
 import net.minecraftforge.fml.common.IWorldGenerator;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Random;
-import java.util.Set;
 
 public class BlockGenerator implements IWorldGenerator {
+    private static final ParallelEngine PARALLEL_ENGINE = new ParallelEngine();
+
     public void generate(Random random, int chunkX, int chunkZ, World world, IChunkGenerator chunkGenerator, IChunkProvider chunkProvider) {
         if (!(world instanceof WorldServer)) return;
         if (!isDimensionWhitelisted(world)) return;
+        if (SpawnBatch.defer((WorldServer) world, chunkX, chunkZ)) return;
 
-        // Extract vars from config for this dimension
-        final ConfigHolder config = YungsLaw.configMap.computeIfAbsent(world.provider.getDimension(), ConfigLoader::loadConfigFromFileForDimension);
-        final boolean           enableOreDeletion    = config.enableOreDeletion.get();
-        final int               radius               = config.genDistance.get();
-        final int               maxAltitude          = config.maxAltitude.get();
-        final boolean           enableLiquidSafety   = config.enableLiquidSafety.get();
-        final IBlockState       hardBlock            = getHardBlockFromString(config.hardBlock.get());
-        final Set<IBlockState>  whitelistedOreBlocks = getBlockSetFromNames(config.oreWhitelist.get());
-        final Set<IBlockState>  safeBlocks           = getBlockSetFromNames(config.safeBlocks.get());
-        final Set<IBlockState>  untouchableBlocks    = getBlockSetFromNames(config.untouchableBlocks.get());
-
-        // Bounds for the 16x16 area we are actually generating on
-        final int innerXStart = chunkX * 16 + 8;
-        final int innerZStart = chunkZ * 16 + 8;
-        final int innerXEnd   = innerXStart + 16;
-        final int innerZEnd   = innerZStart + 16;
-
-        // Bounds for the outer area.
-        // Pads the inner 16x16 area by <radius> blocks in each direction in order to find any Safe Blocks
-        // outside the inner area that may impact blocks within the inner area
-        final int outerXStart = innerXStart - radius;
-        final int outerZStart = innerZStart - radius;
-        final int outerXEnd   = innerXEnd + radius;
-        final int outerZEnd   = innerZEnd + radius;
-
-        // 3-D array of values we set for each block. I don't use an enum here to avoid additional overhead cost
-        // -1 = should not be processed, 0 = Safe Block, 1 = Block within range of AIR, 2 = should be processed, 3 = ore (for ore delete mode)
-        int[][][] values = new int[outerXEnd - outerXStart][maxAltitude + radius][outerZEnd - outerZStart];
-
-        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
-
-        // Initialize values
-        for (int x = 0; x < outerXEnd - outerXStart; x++) {
-            for (int z = 0; z < outerZEnd - outerZStart; z++) {
-                for (int y = 0; y < maxAltitude + radius; y++) {
-                    pos.setPos(outerXStart + x, y, outerZStart + z);
-                    IBlockState state = world.getBlockState(pos);
-                    if (safeBlocks.contains(state) || (enableLiquidSafety && state.getMaterial().isLiquid())) values[x][y][z] = 0; //  0 --> Safe Block
-                    else if (untouchableBlocks.contains(state)) values[x][y][z] = -1;                                              // -1 --> Untouchable Block
-                    else if (enableOreDeletion && whitelistedOreBlocks.contains(state)) values[x][y][z] = 3;                       //  3 --> Ore Block
-                    else values[x][y][z] = 2;                                                                                      //  2 --> Can be processed
-                }
-            }
-        }
+        final long start = System.nanoTime();
+        generateBatch((WorldServer) world, chunkX, chunkZ, 1, 1);
+        SpawnBatch.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Processes the population areas of a chunksX by chunksZ block of chunks, starting at the given chunk, as one volume.
+     * Neighbouring chunks share a single padding ring instead of each reading and dilating their own, so this is
+     * preferred whenever several adjacent chunks are ready at once, e.g. when working through a queue of chunks.
+     * Each chunk's population area must be ready to be processed, just like in generate.
+     */
+    public static void generateBatch(WorldServer world, int chunkX, int chunkZ, int chunksX, int chunksZ) {
+        final Batch batch = Batch.of(world, chunkX, chunkZ, chunksX, chunksZ);
+        if (batch == null) return;
 
-        // Update blocks around air blocks
-        for (int x = outerXStart; x < outerXEnd; x++) {
-            for (int z = outerZStart; z < outerZEnd; z++) {
-                for (int y = 0; y < maxAltitude + radius; y++) {
-                    // Mark blocks within radius distance of AIR blocks as safe from processing (1)
-                    if (values[x - outerXStart][y][z - outerZStart] == 0) {
-                        for (int offsetX = x - outerXStart - radius; offsetX <= x - outerXStart + radius; offsetX++) {
-                            if (offsetX < radius || offsetX > 15 + radius) continue;
-
-                            for (int offsetZ = z - outerZStart - radius; offsetZ <= z - outerZStart + radius; offsetZ++) {
-                                if (offsetZ < radius || offsetZ > 15 + radius) continue;
-
-                                for (int offsetY = y - radius; offsetY <= y + radius; offsetY++) {
-                                    if (offsetY < 0 || offsetY > maxAltitude) continue;
-                                    values[offsetX][offsetY][offsetZ] = Math.min(values[offsetX][offsetY][offsetZ], 1); // 1 --> Cannot be processed
-                                }
-                            }
-                        }
-                    }
-                }
+        final GenerateTrace trace = GenerateTrace.begin(world, chunkX, chunkZ);
+        try {
+            trace.phase("source");
+            batch.gather();
+
+            final ReplacementEngine engine = getEngine(batch.region, batch.profile);
+
+            trace.phase("replace");
+            final WorldSink sink = new WorldSink(world, batch.profile);
+            if (engine == PARALLEL_ENGINE) {
+                // Decisions are made on the pool and only written once every slab is done
+                final DecisionBuffer decisions = PARALLEL_ENGINE.decide(batch.region, trace.count(batch.source));
+                trace.phase("write");
+                decisions.replay(trace.count(sink));
+            } else {
+                engine.process(batch.region, trace.count(batch.source), trace.count(sink));
+                trace.phase("write");
             }
+            sink.finish();
+        } finally {
+            trace.end();
         }
+    }
 
-        // Process marked blocks
-        for (int x = radius; x < 16 + radius; x++) {
-            for (int z = radius; z < 16 + radius; z++) {
-                for (int y = 0; y < maxAltitude; y++) {
-                    pos.setPos(x + outerXStart, y, z + outerZStart);
-                    // Ore deletion mode
-                    if (enableOreDeletion && values[x][y][z] == 3) {
-                        // Replace with biome filler block
-                        world.setBlockState(pos, world.getBiome(pos).fillerBlock);
-                    }
-                    // Replacement mode (default)
-                    else if (!enableOreDeletion && values[x][y][z] == 2) {
-                        world.setBlockState(pos, hardBlock);
-                    }
-                }
+    /**
+     * Creates a source that reads straight from the block storage of the chunks covering the region's padded area.
+     * @param loadedOnly If true, chunks that aren't loaded are never loaded or generated, and their blocks are treated as safe
+     */
+    private static ChunkClassSource getChunkSource(ReplacementRegion region, BlockClassifier classifier, WorldServer world, boolean loadedOnly) {
+        final ChunkClassSource source = new ChunkClassSource(classifier, region, BlockClassifier.SAFE);
+        for (int chunkX = ChunkClassSource.getMinChunkX(region); chunkX <= ChunkClassSource.getMaxChunkX(region); chunkX++) {
+            for (int chunkZ = ChunkClassSource.getMinChunkZ(region); chunkZ <= ChunkClassSource.getMaxChunkZ(region); chunkZ++) {
+                Chunk chunk = loadedOnly ? world.getChunkProvider().getLoadedChunk(chunkX, chunkZ) : world.getChunk(chunkX, chunkZ);
+                if (chunk != null) source.setChunk(chunk);
             }
         }
+        return source;
     }
 
-    private boolean isDimensionWhitelisted(World world) {
-        return Configuration.enableGlobalWhitelist ||
-            Arrays.stream(Configuration.whitelistedDimensionIDs).anyMatch(id -> id == world.provider.getDimension());
+    /**
+     * @return true if the region is large enough for Parallel Processing
+     */
+    private static boolean isParallel(ReplacementRegion region) {
+        return Configuration.performance.enableParallel
+            && (long) region.getPaddedSizeX() * region.getPaddedSizeZ() * region.getPaddedHeight() >= Configuration.performance.parallelMinVolume;
     }
 
-    private Set<IBlockState> getBlockSetFromNames(String[] blockNames) {
-        Set<IBlockState> blockStateList = new HashSet<>();
-
-        for (String blockName : blockNames) {
-            try {
-                if (blockName.indexOf('@') > -1) {
-                    String[] nameSplit = blockName.split("@", 2);
-                    Block block = Block.getBlockFromName(nameSplit[0]);
-                    if (block != null) blockStateList.add(block.getStateFromMeta(Integer.parseInt(nameSplit[1])));
-                }
-                else {
-                    Block block = Block.getBlockFromName(blockName);
-                    if (block != null) blockStateList.add(block.getDefaultState());
-                }
-            } catch (Exception e) {
-                YungsLaw.LOGGER.error("ERROR: Unable to find block {}: {}", blockName, e);
-            }
+    /**
+     * Gets the config for a world's dimension, loading it if necessary.
+     */
+    public static ConfigHolder getConfig(World world) {
+        return getConfig(world.provider.getDimension());
+    }
+
+    public static ConfigHolder getConfig(int dimensionID) {
+        return YungsLaw.configMap.computeIfAbsent(dimensionID, ConfigLoader::loadConfigFromFileForDimension);
+    }
+
+    /**
+     * Gets the engine to use for the given Generation Distance and Max Altitude.
+     */
+    public static ReplacementEngine getEngine(int radius, int maxAltitude) {
+        EngineType engineType = Configuration.performance.engine;
+        if (engineType == EngineType.AUTO) {
+            engineType = maxAltitude >= Configuration.performance.slabMinAltitude ? EngineType.SLAB
+                : radius >= Configuration.performance.pyramidMinDistance ? EngineType.PYRAMID
+                : EngineType.SPARSE;
         }
+        return engineType.getEngine();
+    }
+
+    /**
+     * Gets the engine to use for a dimension's Depth Bands.
+     * All Generation Distances are handled in a single pass when they vary with depth.
+     */
+    public static ReplacementEngine getEngine(DepthProfile profile) {
+        return profile.hasVariableRadius() ? new BandedEngine(profile.getRadii()) : getEngine(profile.getMaxRadius(), profile.getRadii().length);
+    }
+
+    /**
+     * Gets the engine generateBatch runs on a region. Large volumes are split up across threads by the ParallelEngine.
+     */
+    public static ReplacementEngine getEngine(ReplacementRegion region, DepthProfile profile) {
+        return !profile.hasVariableRadius() && isParallel(region) ? PARALLEL_ENGINE : getEngine(profile);
+    }
 
-        return blockStateList;
+    public static boolean isDimensionWhitelisted(World world) {
+        return Configuration.enableGlobalWhitelist ||
+            Arrays.stream(Configuration.whitelistedDimensionIDs).anyMatch(id -> id == world.provider.getDimension());
     }
 
     /**
      * Gets the namespaced Hard Block string from the config and returns its BlockState.
      * Defaults to obsidian if its BlockState cannot be found.
      */
-    private IBlockState getHardBlockFromString(String hardBlockString) {
+    public static IBlockState getHardBlockFromString(String hardBlockString) {
         IBlockState hardBlock;
 
         try {
@@ -161,4 +165,81 @@ public class BlockGenerator implements IWorldGenerator {
 
         return hardBlock;
     }
+
+    /**
+     * The population areas of a block of chunks, processed in steps so that deciding can happen off the main thread.
+     * Blocks are gathered and decisions written on the main thread, while decide may run on any thread in between.
+     */
+    public static class Batch {
+        private final WorldServer world;
+        private final ConfigHolder config;
+        private final DepthProfile profile;
+        private final BlockClassifier classifier;
+        private final ReplacementRegion region;
+        private ClassSource source;
+
+        private Batch(WorldServer world, ConfigHolder config, DepthProfile profile, BlockClassifier classifier, ReplacementRegion region) {
+            this.world = world;
+            this.config = config;
+            this.profile = profile;
+            this.classifier = classifier;
+            this.region = region;
+        }
+
+        /**
+         * Sets up a batch for the population areas of a chunksX by chunksZ block of chunks, starting at the given chunk.
+         *
+         * @return null if YUNG's Law has nothing to do for them here
+         */
+        @Nullable
+        public static Batch of(WorldServer world, int chunkX, int chunkZ, int chunksX, int chunksZ) {
+            // Extract vars from config for this dimension
+            final ConfigHolder    config      = getConfig(world);
+            final DepthProfile    profile     = DepthProfile.of(config);
+            final int             radius      = profile.getMaxRadius();
+            final int             maxAltitude = config.maxAltitude.get();
+            final BlockClassifier classifier  = new BlockClassifier(config);
+
+            if (maxAltitude <= 0) return null;
+
+            // Replacement Mode is handled by the chunk generator wrapper when ChunkPrimer Stage Processing is active.
+            // Ores haven't been placed at that stage though, so Ore Deletion Mode always runs here.
+            if (!classifier.isOreDeletionEnabled() && PrimerChunkGenerator.isInstalled(world)) return null;
+
+            // Bounds for the area we are actually generating on, offset by 8 like population.
+            // The engine pads this area by <radius> blocks in each direction in order to find any Safe Blocks
+            // outside the inner area that may impact blocks within the inner area
+            final ReplacementRegion region = new ReplacementRegion(chunkX * 16 + 8, chunkZ * 16 + 8, chunksX * 16, chunksZ * 16, radius, maxAltitude, classifier.getTargetValue());
+            return new Batch(world, config, profile, classifier, region);
+        }
+
+        /**
+         * Gathers the chunks covering the padded area, loading them if needed. Main thread only.
+         */
+        public void gather() {
+            // Blocks are always classified straight from the chunks' block storage, a section palette at a time
+            final ChunkClassSource chunkSource = getChunkSource(region, classifier, world, Configuration.performance.enableNoCascade);
+            if (Configuration.performance.enableNoCascade) NoCascadeStats.record(region, chunkSource);
+            source = StructureClassSource.wrap(world, region, chunkSource, config);
+        }
+
+        /**
+         * Decides the gathered blocks on the calling thread, without writing anything.
+         * The chunks mustn't be modified until every batch reading them is decided.
+         */
+        public DecisionBuffer decide() {
+            final DecisionBuffer decisions = new DecisionBuffer();
+            getEngine(profile).process(region, source, decisions);
+            return decisions;
+        }
+
+        /**
+         * Writes decisions made by decide. Main thread only.
+         */
+        public void write(DecisionBuffer decisions) {
+            final WorldSink sink = new WorldSink(world, profile);
+            decisions.replay(sink);
+            sink.finish();
+        }
+    }
 }
@@ -0,0 +1,123 @@
+package com.yungnickyoung.minecraft.yungslaw.world;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.config.util.ConfigHolder;
+import net.minecraft.block.state.IBlockState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The Hard Block and Generation Distance for each Y layer of a dimension, after applying its Depth Bands.
+ * Layers not covered by any band use the dimension's usual Hard Block and Generation Distance.
+ */
+public class DepthProfile {
+    private final int[] radii;
+    private final IBlockState[] hardBlocks;
+    private final int maxRadius;
+    private final boolean variableRadius;
+
+    private DepthProfile(int[] radii, IBlockState[] hardBlocks, int defaultRadius) {
+        this.radii = radii;
+        this.hardBlocks = hardBlocks;
+        this.maxRadius = Arrays.stream(radii).max().orElse(defaultRadius);
+        this.variableRadius = Arrays.stream(radii).anyMatch(radius -> radius != radii[0]);
+    }
+
+    /**
+     * Builds the profile for a dimension's config, from y = 0 up to its Max Altitude.
+     */
+    public static DepthProfile of(ConfigHolder config) {
+        final int         defaultRadius    = config.genDistance.get();
+        final IBlockState defaultHardBlock = BlockGenerator.getHardBlockFromString(config.hardBlock.get());
+        final int         maxAltitude      = Math.max(0, config.maxAltitude.get());
+
+        int[] radii = new int[maxAltitude];
+        IBlockState[] hardBlocks = new IBlockState[maxAltitude];
+        Arrays.fill(radii, defaultRadius);
+        Arrays.fill(hardBlocks, defaultHardBlock);
+
+        // Apply the highest bands first, so that deeper bands take priority where they overlap
+        List<Band> bands = parseBands(config.depthBands.get(), defaultRadius);
+        bands.sort(Comparator.comparingInt((Band band) -> band.belowY).reversed());
+        for (Band band : bands) {
+            for (int y = 0; y < Math.min(band.belowY, maxAltitude); y++) {
+                radii[y] = band.radius;
+                hardBlocks[y] = band.hardBlock;
+            }
+        }
+
+        return new DepthProfile(radii, hardBlocks, defaultRadius);
+    }
+
+    /**
+     * @return a copy of this profile with the same Generation Distance at every depth, keeping its Hard Blocks
+     */
+    public DepthProfile withRadius(int radius) {
+        int[] radii = new int[this.radii.length];
+        Arrays.fill(radii, radius);
+        return new DepthProfile(radii, hardBlocks, radius);
+    }
+
+    /**
+     * Parses entries of the form "belowY,hardBlock,genDistance". The Generation Distance may be left out.
+     */
+    private static List<Band> parseBands(String[] entries, int defaultRadius) {
+        List<Band> bands = new ArrayList<>();
+        for (String entry : entries) {
+            String[] parts = entry.split(",");
+            try {
+                if (parts.length < 2 || parts.length > 3) throw new IllegalArgumentException("expected belowY,hardBlock,genDistance");
+
+                int belowY = Integer.parseInt(parts[0].trim());
+                IBlockState hardBlock = BlockGenerator.getHardBlockFromString(parts[1].trim());
+                int radius = parts.length == 3 ? Integer.parseInt(parts[2].trim()) : defaultRadius;
+                if (radius < 0) throw new IllegalArgumentException("Generation Distance can't be negative");
+
+                bands.add(new Band(belowY, hardBlock, radius));
+            } catch (IllegalArgumentException e) {
+                YungsLaw.LOGGER.error("ERROR: Unable to use depth band {}: {}", entry, e.getMessage());
+            }
+        }
+        return bands;
+    }
+
+    /**
+     * @return the Generation Distance for each layer up to Max Altitude
+     */
+    public int[] getRadii() {
+        return radii;
+    }
+
+    /**
+     * @return the largest Generation Distance of any layer, which is how far regions must be padded
+     */
+    public int getMaxRadius() {
+        return maxRadius;
+    }
+
+    /**
+     * @return true if the Generation Distance changes with depth, in which case only the BandedEngine can be used
+     */
+    public boolean hasVariableRadius() {
+        return variableRadius;
+    }
+
+    public IBlockState getHardBlock(int y) {
+        return hardBlocks[y];
+    }
+
+    private static class Band {
+        private final int belowY;
+        private final IBlockState hardBlock;
+        private final int radius;
+
+        private Band(int belowY, IBlockState hardBlock, int radius) {
+            this.belowY = belowY;
+            this.hardBlock = hardBlock;
+            this.radius = radius;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.yungnickyoung.minecraft.yungslaw.world;
+
+import com.yungnickyoung.minecraft.yungslaw.config.YLSettings;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a phase of YUNG's Law processing a region, emitted by GenerateTrace.
+ * Only loaded once jdk.jfr is known to exist (JDK 8u262 and later), so it must never be referenced directly.
+ */
+@Name("yungslaw.Generate")
+@Label("YUNG's Law Generate")
+@Category(YLSettings.NAME)
+@Description("A phase of YUNG's Law processing a region of chunks")
+class GenerateEvent extends jdk.jfr.Event implements GenerateTrace.PhaseEvent {
+    @Label("Phase")
+    String phase;
+
+    @Label("Dimension")
+    int dimension;
+
+    @Label("Chunk X")
+    int chunkX;
+
+    @Label("Chunk Z")
+    int chunkZ;
+
+    @Label("Blocks Scanned")
+    long blocksScanned;
+
+    @Label("Blocks Written")
+    long blocksWritten;
+
+    @Override
+    public boolean start() {
+        if (!isEnabled()) return false;
+
+        begin();
+        return true;
+    }
+
+    @Override
+    public void commit(String phase, int dimension, int chunkX, int chunkZ, long scanned, long written) {
+        end();
+        if (!shouldCommit()) return;
+
+        this.phase = phase;
+        this.dimension = dimension;
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.blocksScanned = scanned;
+        this.blocksWritten = written;
+        commit();
+    }
+}
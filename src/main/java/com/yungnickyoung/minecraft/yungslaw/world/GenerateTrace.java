@@ -0,0 +1,162 @@
+package com.yungnickyoung.minecraft.yungslaw.world;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.config.YLSettings;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementSink;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Marks the phases of processing a region, so that the time spent can be attributed to YUNG's Law in profilers.
+ *
+ * Each phase is a section of the world's profiler (shown by /debug), nested under "yungslaw".
+ * On JDKs with Flight Recorder, each phase also emits a yungslaw.Generate event carrying the phase, dimension,
+ * chunk coordinates, and the number of blocks scanned and written. Blocks are only counted while the event is enabled
+ * in a recording. The event class is loaded reflectively, so nothing changes on JDKs without Flight Recorder.
+ */
+public class GenerateTrace {
+    private final World world;
+    private final int chunkX;
+    private final int chunkZ;
+    private final LongAdder scanned = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    @Nullable private String phase;
+    @Nullable private PhaseEvent event;
+
+    private GenerateTrace(World world, int chunkX, int chunkZ) {
+        this.world = world;
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+    }
+
+    /**
+     * Starts tracing the processing of a region, starting at the given chunk.
+     * Every trace must be closed with end, even if processing fails.
+     */
+    public static GenerateTrace begin(World world, int chunkX, int chunkZ) {
+        world.profiler.startSection(YLSettings.MOD_ID);
+        return new GenerateTrace(world, chunkX, chunkZ);
+    }
+
+    /**
+     * Ends the current phase, if any, and starts a new one.
+     */
+    public void phase(String name) {
+        endPhase();
+        world.profiler.startSection(name);
+        phase = name;
+        event = FlightRecorder.begin();
+    }
+
+    /**
+     * Ends the current phase and the trace.
+     */
+    public void end() {
+        endPhase();
+        world.profiler.endSection();
+    }
+
+    /**
+     * Wraps a source so the current phase counts the blocks read from it, if they are being recorded.
+     * The count is thread-safe, so the source may still be read from several threads.
+     */
+    public ClassSource count(ClassSource source) {
+        if (!FlightRecorder.isEnabled(event)) return source;
+
+        return new ClassSource() {
+            @Override
+            public int getValue(int x, int y, int z) {
+                scanned.increment();
+                return source.getValue(x, y, z);
+            }
+
+            @Override
+            public boolean mayContainSafe(int x0, int y0, int z0, int x1, int y1, int z1) {
+                return source.mayContainSafe(x0, y0, z0, x1, y1, z1);
+            }
+        };
+    }
+
+    /**
+     * Wraps a sink so the current phase counts the blocks written to it, if they are being recorded.
+     */
+    public ReplacementSink count(ReplacementSink sink) {
+        if (!FlightRecorder.isEnabled(event)) return sink;
+
+        return (x, y, z, value) -> {
+            written.increment();
+            sink.replace(x, y, z, value);
+        };
+    }
+
+    private void endPhase() {
+        if (phase == null) return;
+
+        world.profiler.endSection();
+        FlightRecorder.commit(event, phase, world.provider.getDimension(), chunkX, chunkZ, scanned.sumThenReset(), written.sumThenReset());
+        phase = null;
+        event = null;
+    }
+
+    /**
+     * A started Flight Recorder event for a phase. Implemented by GenerateEvent.
+     */
+    interface PhaseEvent {
+        /**
+         * Starts timing the event.
+         *
+         * @return false if the event isn't being recorded, in which case it must be dropped
+         */
+        boolean start();
+
+        void commit(String phase, int dimension, int chunkX, int chunkZ, long scanned, long written);
+    }
+
+    /**
+     * Creates GenerateEvents, which can only be loaded on JDKs with jdk.jfr.
+     */
+    private static class FlightRecorder {
+        @Nullable private static final Constructor<? extends PhaseEvent> CONSTRUCTOR = findConstructor();
+
+        @Nullable
+        private static Constructor<? extends PhaseEvent> findConstructor() {
+            try {
+                Class.forName("jdk.jfr.Event");
+                return Class.forName(GenerateTrace.class.getPackage().getName() + ".GenerateEvent").asSubclass(PhaseEvent.class).getDeclaredConstructor();
+            } catch (ClassNotFoundException e) {
+                // Flight Recorder isn't available
+            } catch (Exception | LinkageError e) {
+                YungsLaw.LOGGER.warn("Unable to register Flight Recorder events: {}", e.toString());
+            }
+            return null;
+        }
+
+        /**
+         * @return a started event, or null if Flight Recorder isn't available or the event isn't being recorded
+         */
+        @Nullable
+        private static PhaseEvent begin() {
+            if (CONSTRUCTOR == null) return null;
+
+            try {
+                PhaseEvent event = CONSTRUCTOR.newInstance();
+                return event.start() ? event : null;
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+
+        private static boolean isEnabled(@Nullable PhaseEvent event) {
+            return event != null;
+        }
+
+        private static void commit(@Nullable PhaseEvent event, String phase, int dimension, int chunkX, int chunkZ, long scanned, long written) {
+            if (event != null) event.commit(phase, dimension, chunkX, chunkZ, scanned, written);
+        }
+    }
+}
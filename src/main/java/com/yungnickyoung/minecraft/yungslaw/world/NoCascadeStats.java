@@ -0,0 +1,74 @@
+package com.yungnickyoung.minecraft.yungslaw.world;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementRegion;
+import com.yungnickyoung.minecraft.yungslaw.world.source.ChunkClassSource;
+
+/**
+ * Tracks how much of the chunk border No-Cascade Mode decides conservatively.
+ *
+ * A border block is a block in an inner area whose range reaches into a chunk outside that inner area's own chunks.
+ * It is decided conservatively if any chunk in its range wasn't loaded, since that chunk's blocks were treated as safe.
+ * Blocks are counted per column, from y = 0 up to Max Altitude.
+ */
+public class NoCascadeStats {
+    /** Number of processed regions between log messages */
+    private static final int LOG_INTERVAL = 1024;
+
+    private static long regions;
+    private static long borderBlocks;
+    private static long conservativeBlocks;
+
+    public static synchronized void record(ReplacementRegion region, ChunkClassSource source) {
+        final int radius = region.radius;
+        final int innerMinChunkX = region.xStart >> 4;
+        final int innerMaxChunkX = (region.xStart + region.sizeX - 1) >> 4;
+        final int innerMinChunkZ = region.zStart >> 4;
+        final int innerMaxChunkZ = (region.zStart + region.sizeZ - 1) >> 4;
+
+        long border = 0;
+        long conservative = 0;
+        for (int z = region.zStart; z < region.zStart + region.sizeZ; z++) {
+            final int minChunkZ = (z - radius) >> 4;
+            final int maxChunkZ = (z + radius) >> 4;
+            for (int x = region.xStart; x < region.xStart + region.sizeX; x++) {
+                final int minChunkX = (x - radius) >> 4;
+                final int maxChunkX = (x + radius) >> 4;
+                if (minChunkX >= innerMinChunkX && maxChunkX <= innerMaxChunkX && minChunkZ >= innerMinChunkZ && maxChunkZ <= innerMaxChunkZ) continue;
+
+                border++;
+                if (hasMissingColumn(source, minChunkX, maxChunkX, minChunkZ, maxChunkZ)) conservative++;
+            }
+        }
+
+        regions++;
+        borderBlocks += border * region.maxAltitude;
+        conservativeBlocks += conservative * region.maxAltitude;
+
+        if (regions % LOG_INTERVAL == 0) {
+            YungsLaw.LOGGER.debug("No-Cascade Mode decided {}% of {} border blocks conservatively", String.format("%.2f", getConservativeFraction() * 100), borderBlocks);
+        }
+    }
+
+    /**
+     * @return fraction of border blocks decided conservatively since the last reset
+     */
+    public static synchronized double getConservativeFraction() {
+        return borderBlocks == 0 ? 0 : (double) conservativeBlocks / borderBlocks;
+    }
+
+    public static synchronized void reset() {
+        regions = 0;
+        borderBlocks = 0;
+        conservativeBlocks = 0;
+    }
+
+    private static boolean hasMissingColumn(ChunkClassSource source, int minChunkX, int maxChunkX, int minChunkZ, int maxChunkZ) {
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if (source.isColumnMissing(chunkX, chunkZ)) return true;
+            }
+        }
+        return false;
+    }
+}
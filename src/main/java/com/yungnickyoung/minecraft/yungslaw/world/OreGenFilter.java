@@ -0,0 +1,315 @@
+package com.yungnickyoung.minecraft.yungslaw.world;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.config.StructureHandling;
+import com.yungnickyoung.minecraft.yungslaw.config.util.ConfigHolder;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementRegion;
+import com.yungnickyoung.minecraft.yungslaw.world.source.ChunkClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.structure.StructureClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.structure.StructureIndex;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.BiomeDecorator;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.ChunkGeneratorSettings;
+import net.minecraft.world.gen.feature.WorldGenMinable;
+import net.minecraft.world.gen.feature.WorldGenerator;
+import net.minecraft.world.gen.structure.StructureBoundingBox;
+import net.minecraftforge.event.terraingen.OreGenEvent;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Skips ore and stone blob veins that Replacement Mode would overwrite with the Hard Block anyway.
+ *
+ * Takes over the vanilla decorator's standard ore generation for a chunk, placing veins at exactly the positions vanilla
+ * would. Veins whose bounding box has no Safe Block within range aren't placed, but the random numbers they would have
+ * used are still drawn, so every other feature in the chunk is placed just as before.
+ * A vein may reach into the population areas of neighbouring chunks, so it's only skipped if every area it reaches is
+ * the current chunk's or belongs to a chunk that hasn't been populated yet, i.e. is still going to be replaced.
+ * Structures are placed before ores, so Structure Handling is applied to the Safe Blocks around a vein, and with
+ * UNTOUCHABLE, veins reaching into a structure's bounding box are always placed.
+ * Whether a vein would be overwritten is judged when ores are generated. A Safe Block placed near it later in population
+ * (e.g. by a spring) would have protected it, so skipped veins are occasionally missing where they would have survived.
+ */
+public class OreGenFilter {
+    /** Furthest a vanilla-sized vein (up to 33 blocks) may reach from its centre horizontally */
+    private static final int MARGIN = 8;
+    /** Widest table whose counts still fit in a short */
+    private static final int MAX_TABLE_WIDTH = 181;
+    /** Package-private in vanilla, so it can only be checked by name */
+    private static final String STONE_PREDICATE = "net.minecraft.world.gen.feature.WorldGenMinable$StonePredicate";
+
+    private static final Field ORE_BLOCK_FIELD        = findField("oreBlock", "field_175919_a");
+    private static final Field NUMBER_OF_BLOCKS_FIELD = findField("numberOfBlocks", "field_76541_b");
+    private static final Field PREDICATE_FIELD        = findField("predicate", "field_175918_c");
+
+    /** Safe Block table for the chunk currently being decorated */
+    private static SafeLayerTable table;
+
+    /**
+     * Generates a chunk's veins of an ore type the way the vanilla decorator would, skipping veins that would be overwritten.
+     *
+     * @return true if the ore type was generated, in which case vanilla generation must be denied
+     */
+    public static boolean generate(WorldServer world, Random rand, BlockPos chunkPos, OreGenEvent.GenerateMinable.EventType type, WorldGenerator generator) {
+        boolean generated = tryGenerate(world, rand, chunkPos, type, generator);
+
+        // Whatever vanilla generates instead may place Safe Blocks, so the table has to be rebuilt
+        if (!generated) reset();
+
+        return generated;
+    }
+
+    private static boolean tryGenerate(WorldServer world, Random rand, BlockPos chunkPos, OreGenEvent.GenerateMinable.EventType type, WorldGenerator generator) {
+        if (generator.getClass() != WorldGenMinable.class || ORE_BLOCK_FIELD == null || NUMBER_OF_BLOCKS_FIELD == null || PREDICATE_FIELD == null) return false;
+
+        // Only the base decorator is known to generate ores in the standard way
+        Biome biome = world.getBiome(chunkPos.add(16, 0, 16));
+        if (biome.decorator == null || biome.decorator.getClass() != BiomeDecorator.class || biome.decorator.chunkProviderSettings == null) return false;
+
+        final ConfigHolder    config      = BlockGenerator.getConfig(world);
+        final int             radius      = DepthProfile.of(config).getMaxRadius();
+        final int             maxAltitude = config.maxAltitude.get();
+        final BlockClassifier classifier  = new BlockClassifier(config);
+
+        // Ore Deletion Mode would replace veins with filler rather than leave stone, and ChunkPrimer Stage Processing runs before ores exist
+        if (maxAltitude <= 0 || classifier.isOreDeletionEnabled() || PrimerChunkGenerator.isInstalled(world)) return false;
+        if (16 + 2 * MARGIN + 2 * radius > MAX_TABLE_WIDTH) return false;
+
+        final IBlockState oreBlock;
+        final int numberOfBlocks;
+        try {
+            Object predicate = PREDICATE_FIELD.get(generator);
+            if (predicate == null || !predicate.getClass().getName().equals(STONE_PREDICATE)) return false;
+            oreBlock = (IBlockState) ORE_BLOCK_FIELD.get(generator);
+            numberOfBlocks = NUMBER_OF_BLOCKS_FIELD.getInt(generator);
+        } catch (IllegalAccessException e) {
+            return false;
+        }
+
+        // Both the vein and the stone it replaces must end up as the Hard Block
+        if (classifier.classify(oreBlock) != BlockClassifier.PROCESSABLE || classifier.classify(Blocks.STONE.getDefaultState()) != BlockClassifier.PROCESSABLE) return false;
+
+        final ChunkGeneratorSettings settings = biome.decorator.chunkProviderSettings;
+        switch (type) {
+            case DIRT:     generateStandard(world, rand, chunkPos, generator, numberOfBlocks, settings.dirtCount, settings.dirtMinHeight, settings.dirtMaxHeight, radius, maxAltitude, classifier, config); break;
+            case GRAVEL:   generateStandard(world, rand, chunkPos, generator, numberOfBlocks, settings.gravelCount, settings.gravelMinHeight, settings.gravelMaxHeight, radius, maxAltitude, classifier, config); break;
+            case DIORITE:  generateStandard(world, rand, chunkPos, generator, numberOfBlocks, settings.dioriteCount, settings.dioriteMinHeight, settings.dioriteMaxHeight, radius, maxAltitude, classifier, config); break;
+            case GRANITE:  generateStandard(world, rand, chunkPos, generator, numberOfBlocks, settings.graniteCount, settings.graniteMinHeight, settings.graniteMaxHeight, radius, maxAltitude, classifier, config); break;
+            case ANDESITE: generateStandard(world, rand, chunkPos, generator, numberOfBlocks, settings.andesiteCount, settings.andesiteMinHeight, settings.andesiteMaxHeight, radius, maxAltitude, classifier, config); break;
+            case COAL:     generateStandard(world, rand, chunkPos, generator, numberOfBlocks, settings.coalCount, settings.coalMinHeight, settings.coalMaxHeight, radius, maxAltitude, classifier, config); break;
+            case IRON:     generateStandard(world, rand, chunkPos, generator, numberOfBlocks, settings.ironCount, settings.ironMinHeight, settings.ironMaxHeight, radius, maxAltitude, classifier, config); break;
+            case GOLD:     generateStandard(world, rand, chunkPos, generator, numberOfBlocks, settings.goldCount, settings.goldMinHeight, settings.goldMaxHeight, radius, maxAltitude, classifier, config); break;
+            case REDSTONE: generateStandard(world, rand, chunkPos, generator, numberOfBlocks, settings.redstoneCount, settings.redstoneMinHeight, settings.redstoneMaxHeight, radius, maxAltitude, classifier, config); break;
+            case DIAMOND:  generateStandard(world, rand, chunkPos, generator, numberOfBlocks, settings.diamondCount, settings.diamondMinHeight, settings.diamondMaxHeight, radius, maxAltitude, classifier, config); break;
+            case LAPIS:    generateCentered(world, rand, chunkPos, generator, numberOfBlocks, settings.lapisCount, settings.lapisCenterHeight, settings.lapisSpread, radius, maxAltitude, classifier, config); break;
+            default:       return false;
+        }
+        return true;
+    }
+
+    /**
+     * Same as BiomeDecorator.genStandardOre1, skipping overwritten veins.
+     */
+    private static void generateStandard(WorldServer world, Random rand, BlockPos chunkPos, WorldGenerator generator, int numberOfBlocks,
+                                         int count, int minHeight, int maxHeight, int radius, int maxAltitude, BlockClassifier classifier, ConfigHolder config) {
+        if (maxHeight < minHeight) {
+            int i = minHeight;
+            minHeight = maxHeight;
+            maxHeight = i;
+        } else if (maxHeight == minHeight) {
+            if (minHeight < 255) maxHeight++;
+            else minHeight--;
+        }
+
+        for (int i = 0; i < count; i++) {
+            BlockPos pos = chunkPos.add(rand.nextInt(16), rand.nextInt(maxHeight - minHeight) + minHeight, rand.nextInt(16));
+            generateVein(world, rand, chunkPos, pos, generator, numberOfBlocks, radius, maxAltitude, classifier, config);
+        }
+    }
+
+    /**
+     * Same as BiomeDecorator.genStandardOre2, skipping overwritten veins.
+     */
+    private static void generateCentered(WorldServer world, Random rand, BlockPos chunkPos, WorldGenerator generator, int numberOfBlocks,
+                                         int count, int centerHeight, int spread, int radius, int maxAltitude, BlockClassifier classifier, ConfigHolder config) {
+        for (int i = 0; i < count; i++) {
+            BlockPos pos = chunkPos.add(rand.nextInt(16), rand.nextInt(spread) + rand.nextInt(spread) + centerHeight - spread, rand.nextInt(16));
+            generateVein(world, rand, chunkPos, pos, generator, numberOfBlocks, radius, maxAltitude, classifier, config);
+        }
+    }
+
+    private static void generateVein(WorldServer world, Random rand, BlockPos chunkPos, BlockPos pos, WorldGenerator generator,
+                                     int numberOfBlocks, int radius, int maxAltitude, BlockClassifier classifier, ConfigHolder config) {
+        // Bounds of the vein, following WorldGenMinable's shape, plus a block for float rounding
+        final int horizontal = (3 * numberOfBlocks + 23) / 16 + 1;
+        final int vertical = (numberOfBlocks + 23) / 16 + 1;
+        final int centerX = pos.getX() + 8, centerZ = pos.getZ() + 8;
+        final int minY = Math.max(0, pos.getY() - 2 - vertical), maxY = pos.getY() + vertical;
+
+        boolean overwritten = horizontal <= MARGIN && maxY < maxAltitude
+            && isUnprocessed(world, chunkPos, centerX - horizontal, centerZ - horizontal, centerX + horizontal, centerZ + horizontal);
+        if (overwritten) {
+            SafeLayerTable table = getTable(world, chunkPos, radius, maxAltitude, classifier, config);
+            overwritten = !table.isInStructure(centerX - horizontal, minY, centerZ - horizontal, centerX + horizontal, maxY, centerZ + horizontal)
+                && !table.hasSafe(
+                    centerX - horizontal - radius, minY - radius, centerZ - horizontal - radius,
+                    centerX + horizontal + radius, maxY + radius, centerZ + horizontal + radius);
+        }
+
+        if (overwritten) {
+            // Draw the same random numbers as WorldGenMinable.generate
+            rand.nextFloat();
+            rand.nextInt(3);
+            rand.nextInt(3);
+            for (int i = 0; i < numberOfBlocks; i++) rand.nextDouble();
+        } else {
+            generator.generate(world, rand, pos);
+        }
+    }
+
+    /**
+     * @return true if every population area the inclusive box reaches is the current chunk's or belongs to a loaded chunk
+     * that hasn't been populated yet, so that all of it is still going to be replaced
+     */
+    private static boolean isUnprocessed(WorldServer world, BlockPos chunkPos, int minX, int minZ, int maxX, int maxZ) {
+        final int chunkX = chunkPos.getX() >> 4, chunkZ = chunkPos.getZ() >> 4;
+        for (int x = (minX - 8) >> 4; x <= (maxX - 8) >> 4; x++) {
+            for (int z = (minZ - 8) >> 4; z <= (maxZ - 8) >> 4; z++) {
+                if (x == chunkX && z == chunkZ) continue;
+
+                Chunk chunk = world.getChunkProvider().getLoadedChunk(x, z);
+                if (chunk == null || chunk.isTerrainPopulated()) return false;
+            }
+        }
+        return true;
+    }
+
+    private static SafeLayerTable getTable(WorldServer world, BlockPos chunkPos, int radius, int maxAltitude, BlockClassifier classifier, ConfigHolder config) {
+        if (table == null || table.world != world || table.originX != chunkPos.getX() || table.originZ != chunkPos.getZ() || table.radius != radius) {
+            table = new SafeLayerTable(world, chunkPos.getX(), chunkPos.getZ(), radius, maxAltitude, classifier, config);
+        }
+        return table;
+    }
+
+    /**
+     * Clears the table so it doesn't hold on to a world.
+     */
+    public static void reset() {
+        table = null;
+    }
+
+    @Nullable
+    private static Field findField(String... names) {
+        try {
+            return ReflectionHelper.findField(WorldGenMinable.class, names);
+        } catch (Exception e) {
+            YungsLaw.LOGGER.warn("Unable to access WorldGenMinable.{}. Ore generation won't be filtered: {}", names[0], e);
+            return null;
+        }
+    }
+
+    /**
+     * Per-layer summed-area tables of Safe Blocks around a chunk's decoration area, built one layer at a time as needed.
+     * Only loaded chunks are read, and anything outside them counts as a Safe Block. Structure Handling is applied to them
+     * the same way as when the area is replaced.
+     */
+    private static class SafeLayerTable {
+        private final WorldServer world;
+        private final int originX;
+        private final int originZ;
+        private final int radius;
+        private final ClassSource source;
+        /** Bounding boxes whose blocks are left alone, if Structure Handling is UNTOUCHABLE */
+        private final List<StructureBoundingBox> untouchableBoxes;
+        private final int xStart;
+        private final int zStart;
+        private final int width;
+        /** Entry (x, z) of a layer holds the count in [0, x) * [0, z). Null if the layer has no Safe Blocks */
+        private final short[][] layers = new short[256][];
+        private final boolean[] built = new boolean[256];
+
+        private SafeLayerTable(WorldServer world, int originX, int originZ, int radius, int maxAltitude, BlockClassifier classifier, ConfigHolder config) {
+            this.world = world;
+            this.originX = originX;
+            this.originZ = originZ;
+            this.radius = radius;
+
+            ReplacementRegion region = new ReplacementRegion(originX + 8 - MARGIN, originZ + 8 - MARGIN, 16 + 2 * MARGIN, 16 + 2 * MARGIN, radius, maxAltitude, classifier.getTargetValue());
+            ChunkClassSource chunkSource = new ChunkClassSource(classifier, region, BlockClassifier.SAFE);
+            for (int x = ChunkClassSource.getMinChunkX(region); x <= ChunkClassSource.getMaxChunkX(region); x++) {
+                for (int z = ChunkClassSource.getMinChunkZ(region); z <= ChunkClassSource.getMaxChunkZ(region); z++) {
+                    Chunk chunk = world.getChunkProvider().getLoadedChunk(x, z);
+                    if (chunk != null) chunkSource.setChunk(chunk);
+                }
+            }
+            this.source = StructureClassSource.wrap(world, region, chunkSource, config);
+            this.xStart = region.getOuterXStart();
+            this.zStart = region.getOuterZStart();
+            this.width = region.getPaddedSizeX();
+            this.untouchableBoxes = StructureHandling.fromString(config.structureHandling.get()) == StructureHandling.UNTOUCHABLE
+                ? StructureIndex.query(world, xStart, zStart, xStart + width - 1, zStart + width - 1)
+                : Collections.emptyList();
+        }
+
+        /**
+         * @return true if the inclusive box reaches into a structure whose blocks are left alone
+         */
+        private boolean isInStructure(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            for (StructureBoundingBox box : untouchableBoxes) {
+                if (box.minX <= maxX && box.maxX >= minX && box.minY <= maxY && box.maxY >= minY && box.minZ <= maxZ && box.maxZ >= minZ) return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return true if the inclusive box may hold a Safe Block
+         */
+        private boolean hasSafe(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            if (minX < xStart || minZ < zStart || maxX >= xStart + width || maxZ >= zStart + width || maxY >= layers.length) return true;
+
+            final int x0 = minX - xStart, x1 = maxX - xStart + 1;
+            final int z0 = minZ - zStart, z1 = maxZ - zStart + 1;
+            for (int y = Math.max(0, minY); y <= maxY; y++) {
+                short[] sums = getLayer(y);
+                if (sums == null) continue;
+                int count = sums[z1 * (width + 1) + x1] - sums[z0 * (width + 1) + x1] - sums[z1 * (width + 1) + x0] + sums[z0 * (width + 1) + x0];
+                if (count > 0) return true;
+            }
+            return false;
+        }
+
+        @Nullable
+        private short[] getLayer(int y) {
+            if (built[y]) return layers[y];
+            built[y] = true;
+
+            if (!source.mayContainSafe(xStart, y, zStart, xStart + width, y + 1, zStart + width)) return null;
+
+            final int stride = width + 1;
+            short[] sums = new short[stride * stride];
+            boolean hasSafe = false;
+            for (int z = 0; z < width; z++) {
+                int rowCount = 0;
+                for (int x = 0; x < width; x++) {
+                    if (source.getValue(xStart + x, y, zStart + z) == BlockClassifier.SAFE) {
+                        rowCount++;
+                        hasSafe = true;
+                    }
+                    sums[(z + 1) * stride + x + 1] = (short) (sums[z * stride + x + 1] + rowCount);
+                }
+            }
+            return layers[y] = hasSafe ? sums : null;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.yungnickyoung.minecraft.yungslaw.world;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.config.Configuration;
+import com.yungnickyoung.minecraft.yungslaw.config.PrimerBorderMode;
+import com.yungnickyoung.minecraft.yungslaw.config.util.ConfigHolder;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementRegion;
+import com.yungnickyoung.minecraft.yungslaw.world.sink.ChunkSink;
+import com.yungnickyoung.minecraft.yungslaw.world.source.ChunkClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.structure.StructureClassSource;
+import net.minecraft.entity.EnumCreatureType;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraft.world.gen.ChunkProviderServer;
+import net.minecraft.world.gen.IChunkGenerator;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps a dimension's chunk generator so that Replacement Mode runs on each chunk as soon as its terrain and caves
+ * have been generated, before the chunk is added to the world.
+ * Blocks are written straight into the chunk's storage, so there are no lighting, neighbour or client updates.
+ */
+public class PrimerChunkGenerator implements IChunkGenerator {
+    /** Number of regenerated neighbour chunks kept around, since each is needed by up to 8 new chunks */
+    private static final int REGENERATED_CACHE_SIZE = 64;
+
+    private final WorldServer world;
+    private final IChunkGenerator delegate;
+    private final Map<Long, ExtendedBlockStorage[]> regenerated = new LinkedHashMap<Long, ExtendedBlockStorage[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ExtendedBlockStorage[]> eldest) {
+            return size() > REGENERATED_CACHE_SIZE;
+        }
+    };
+
+    private PrimerChunkGenerator(WorldServer world, IChunkGenerator delegate) {
+        this.world = world;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Replaces the world's chunk generator with a wrapper, if it hasn't been already.
+     */
+    public static void install(WorldServer world) {
+        ChunkProviderServer chunkProvider = world.getChunkProvider();
+        if (chunkProvider.chunkGenerator instanceof PrimerChunkGenerator) return;
+
+        try {
+            ReflectionHelper.setPrivateValue(ChunkProviderServer.class, chunkProvider, new PrimerChunkGenerator(world, chunkProvider.chunkGenerator), "chunkGenerator", "field_186029_c");
+            YungsLaw.LOGGER.info("Enabled ChunkPrimer Stage Processing for dimension {}", world.provider.getDimension());
+        } catch (Exception e) {
+            YungsLaw.LOGGER.error("Unable to enable ChunkPrimer Stage Processing for dimension {}: {}", world.provider.getDimension(), e);
+        }
+    }
+
+    public static boolean isInstalled(WorldServer world) {
+        return world.getChunkProvider().chunkGenerator instanceof PrimerChunkGenerator;
+    }
+
+    @Override
+    public Chunk generateChunk(int x, int z) {
+        Chunk chunk = delegate.generateChunk(x, z);
+        regenerated.remove(ChunkPos.asLong(x, z));
+
+        if (BlockGenerator.isDimensionWhitelisted(world)) {
+            process(chunk);
+        }
+
+        return chunk;
+    }
+
+    private void process(Chunk chunk) {
+        // Extract vars from config for this dimension
+        final ConfigHolder    config      = BlockGenerator.getConfig(world);
+        final DepthProfile    profile     = DepthProfile.of(config);
+        final int             radius      = profile.getMaxRadius();
+        final int             maxAltitude = config.maxAltitude.get();
+        final BlockClassifier classifier  = new BlockClassifier(config);
+
+        // Ores are placed during population, so Ore Deletion Mode is left to the BlockGenerator
+        if (maxAltitude <= 0 || classifier.isOreDeletionEnabled()) return;
+
+        final ReplacementRegion region = new ReplacementRegion(chunk.x * 16, chunk.z * 16, 16, 16, radius, maxAltitude, classifier.getTargetValue());
+
+        // Padding in neighbours we can't read is treated as safe, so nothing near it gets replaced
+        final ChunkClassSource source = new ChunkClassSource(classifier, region, BlockClassifier.SAFE);
+        for (int chunkX = ChunkClassSource.getMinChunkX(region); chunkX <= ChunkClassSource.getMaxChunkX(region); chunkX++) {
+            for (int chunkZ = ChunkClassSource.getMinChunkZ(region); chunkZ <= ChunkClassSource.getMaxChunkZ(region); chunkZ++) {
+                if (chunkX == chunk.x && chunkZ == chunk.z) {
+                    source.setChunk(chunk);
+                } else {
+                    source.setColumn(chunkX, chunkZ, getNeighbour(chunkX, chunkZ));
+                }
+            }
+        }
+
+        final ChunkSink sink = new ChunkSink(chunk, profile);
+        BlockGenerator.getEngine(profile).process(region, StructureClassSource.wrap(world, region, source, config), sink);
+        sink.finish();
+    }
+
+    /**
+     * @return the block storage of a neighbouring chunk, or null if it can't be read under the current Border Mode
+     */
+    @Nullable
+    private ExtendedBlockStorage[] getNeighbour(int chunkX, int chunkZ) {
+        Chunk loaded = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+        if (loaded != null) return loaded.getBlockStorageArray();
+
+        if (Configuration.performance.primerBorderMode != PrimerBorderMode.REGENERATE) return null;
+
+        return regenerated.computeIfAbsent(ChunkPos.asLong(chunkX, chunkZ), key -> delegate.generateChunk(chunkX, chunkZ).getBlockStorageArray());
+    }
+
+    @Override
+    public void populate(int x, int z) {
+        delegate.populate(x, z);
+    }
+
+    @Override
+    public boolean generateStructures(Chunk chunkIn, int x, int z) {
+        return delegate.generateStructures(chunkIn, x, z);
+    }
+
+    @Override
+    public List<Biome.SpawnListEntry> getPossibleCreatures(EnumCreatureType creatureType, BlockPos pos) {
+        return delegate.getPossibleCreatures(creatureType, pos);
+    }
+
+    @Nullable
+    @Override
+    public BlockPos getNearestStructurePos(World worldIn, String structureName, BlockPos position, boolean findUnexplored) {
+        return delegate.getNearestStructurePos(worldIn, structureName, position, findUnexplored);
+    }
+
+    @Override
+    public void recreateStructures(Chunk chunkIn, int x, int z) {
+        delegate.recreateStructures(chunkIn, x, z);
+    }
+
+    @Override
+    public boolean isInsideStructure(World worldIn, String structureName, BlockPos pos) {
+        return delegate.isInsideStructure(worldIn, structureName, pos);
+    }
+}
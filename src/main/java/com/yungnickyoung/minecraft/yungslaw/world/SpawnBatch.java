@@ -0,0 +1,176 @@
+package com.yungnickyoung.minecraft.yungslaw.world;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.config.Configuration;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.DecisionBuffer;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ParallelEngine;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.WorldServer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Processes the chunks populated while the server prepares its spawn area as a few large batches.
+ *
+ * Between the server about to start and starting, chunks are only collected. Once the spawn area is ready, each world's
+ * collected chunks are split into tiles, and every fully collected tile is processed as one volume. Each tile's chunks
+ * are gathered on the main thread, then all tiles are decided concurrently on the shared worker pool, and finally
+ * written on the main thread. Time spent by YUNG's Law during startup is logged either way.
+ */
+public class SpawnBatch {
+    /** Width of the tiles collected chunks are processed in, in chunks */
+    private static final int TILE_SIZE = 8;
+
+    private static final Map<WorldServer, Set<Long>> deferred = new LinkedHashMap<>();
+    private static boolean starting = false;
+    private static boolean collecting = false;
+    private static long startupNanos;
+    private static int startupChunks;
+
+    public static void serverAboutToStart() {
+        starting = true;
+        collecting = Configuration.performance.enableSpawnBatch;
+        startupNanos = 0;
+        startupChunks = 0;
+        deferred.clear();
+    }
+
+    /**
+     * Processes every collected chunk and reports how long YUNG's Law took during startup.
+     */
+    public static void serverStarting() {
+        if (!starting) return;
+        starting = false;
+        collecting = false;
+
+        final long start = System.nanoTime();
+        int tiles = 0;
+        for (Map.Entry<WorldServer, Set<Long>> entry : deferred.entrySet()) {
+            tiles += process(entry.getKey(), entry.getValue());
+        }
+        deferred.clear();
+        startupNanos += System.nanoTime() - start;
+
+        if (startupChunks > 0) {
+            if (tiles > 0) {
+                YungsLaw.LOGGER.info("YUNG's Law processed {} spawn area chunks in {} batches, taking {} ms", startupChunks, tiles, startupNanos / 1_000_000);
+            } else {
+                YungsLaw.LOGGER.info("YUNG's Law processed {} spawn area chunks, taking {} ms", startupChunks, startupNanos / 1_000_000);
+            }
+        }
+    }
+
+    /**
+     * Collects a chunk instead of processing it, if the spawn area is being prepared.
+     *
+     * @return true if the chunk was collected
+     */
+    public static boolean defer(WorldServer world, int chunkX, int chunkZ) {
+        if (!collecting) return false;
+
+        deferred.computeIfAbsent(world, key -> new LinkedHashSet<>()).add(ChunkPos.asLong(chunkX, chunkZ));
+        startupChunks++;
+        return true;
+    }
+
+    /**
+     * Counts the time spent processing a chunk that wasn't collected.
+     */
+    public static void record(long nanos) {
+        if (!starting) return;
+
+        startupNanos += nanos;
+        startupChunks++;
+    }
+
+    /**
+     * @return number of batches processed
+     */
+    private static int process(WorldServer world, Set<Long> chunks) {
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (long key : chunks) {
+            minX = Math.min(minX, getX(key)); maxX = Math.max(maxX, getX(key));
+            minZ = Math.min(minZ, getZ(key)); maxZ = Math.max(maxZ, getZ(key));
+        }
+
+        // Gather every complete tile's chunks on this thread, leaving the rest to be processed chunk by chunk
+        List<BlockGenerator.Batch> batches = new ArrayList<>();
+        List<Long> leftovers = new ArrayList<>();
+        for (int tileX = minX; tileX <= maxX; tileX += TILE_SIZE) {
+            for (int tileZ = minZ; tileZ <= maxZ; tileZ += TILE_SIZE) {
+                final int sizeX = Math.min(TILE_SIZE, maxX - tileX + 1);
+                final int sizeZ = Math.min(TILE_SIZE, maxZ - tileZ + 1);
+
+                if (!isComplete(chunks, tileX, tileZ, sizeX, sizeZ)) {
+                    for (int chunkX = tileX; chunkX < tileX + sizeX; chunkX++) {
+                        for (int chunkZ = tileZ; chunkZ < tileZ + sizeZ; chunkZ++) {
+                            if (chunks.contains(ChunkPos.asLong(chunkX, chunkZ))) leftovers.add(ChunkPos.asLong(chunkX, chunkZ));
+                        }
+                    }
+                    continue;
+                }
+
+                BlockGenerator.Batch batch = BlockGenerator.Batch.of(world, tileX, tileZ, sizeX, sizeZ);
+                if (batch == null) continue;
+
+                final GenerateTrace trace = GenerateTrace.begin(world, tileX, tileZ);
+                try {
+                    trace.phase("source");
+                    batch.gather();
+                } finally {
+                    trace.end();
+                }
+                batches.add(batch);
+            }
+        }
+
+        // Decide every tile concurrently. Nothing is written until all of them are done, since tiles read each other's edges
+        List<ForkJoinTask<DecisionBuffer>> tasks = new ArrayList<>(batches.size());
+        for (BlockGenerator.Batch batch : batches) tasks.add(ParallelEngine.getPool().submit(batch::decide));
+        List<DecisionBuffer> decisions = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<DecisionBuffer> task : tasks) {
+            try {
+                decisions.add(task.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        for (int i = 0; i < batches.size(); i++) {
+            batches.get(i).write(decisions.get(i));
+        }
+
+        // Edges of an irregular area are processed chunk by chunk
+        for (long key : leftovers) {
+            BlockGenerator.generateBatch(world, getX(key), getZ(key), 1, 1);
+        }
+        return batches.size();
+    }
+
+    private static boolean isComplete(Set<Long> chunks, int chunkX, int chunkZ, int sizeX, int sizeZ) {
+        for (int x = chunkX; x < chunkX + sizeX; x++) {
+            for (int z = chunkZ; z < chunkZ + sizeZ; z++) {
+                if (!chunks.contains(ChunkPos.asLong(x, z))) return false;
+            }
+        }
+        return true;
+    }
+
+    private static int getX(long key) {
+        return (int) key;
+    }
+
+    private static int getZ(long key) {
+        return (int) (key >> 32);
+    }
+}
@@ -0,0 +1,134 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+
+import java.util.Arrays;
+
+/**
+ * Streams the padded region upwards like the SLAB engine, but with its own Generation Distance for each Y layer.
+ *
+ * Each layer is classified once and then dilated once per distinct distance, and each distance keeps its own sliding
+ * count of layers within range. Adding depth bands therefore only adds a dilation per layer, rather than another read
+ * of the whole region. The region's radius must be at least the largest distance, since it sets the padding.
+ */
+public class BandedEngine implements ReplacementEngine {
+    /** The distinct Generation Distances */
+    private final int[] distances;
+    /** Index into distances for each Y layer */
+    private final int[] bandOf;
+    /** Entry y of each distance holds the number of layers below y that use it */
+    private final int[][] usesBelow;
+
+    /**
+     * @param radii The Generation Distance for each Y layer, from y = 0 up to at least Max Altitude
+     */
+    public BandedEngine(int[] radii) {
+        this.distances = Arrays.stream(radii).distinct().sorted().toArray();
+        this.bandOf = new int[radii.length];
+        this.usesBelow = new int[distances.length][radii.length + 1];
+        for (int y = 0; y < radii.length; y++) {
+            bandOf[y] = Arrays.binarySearch(distances, radii[y]);
+            for (int k = 0; k < distances.length; k++) {
+                usesBelow[k][y + 1] = usesBelow[k][y] + (bandOf[y] == k ? 1 : 0);
+            }
+        }
+    }
+
+    @Override
+    public void process(ReplacementRegion region, ClassSource source, ReplacementSink sink) {
+        if (bandOf.length < region.maxAltitude || (distances.length > 0 && distances[distances.length - 1] > region.radius)) {
+            throw new IllegalArgumentException("Depth bands don't cover the region");
+        }
+
+        final int radius      = region.radius;
+        final int outerXStart = region.getOuterXStart();
+        final int outerZStart = region.getOuterZStart();
+        final int paddedX     = region.getPaddedSizeX();
+        final int paddedZ     = region.getPaddedSizeZ();
+        final int height      = region.getPaddedHeight();
+        final int sizeX       = region.sizeX;
+        final int sizeZ       = region.sizeZ;
+        final int innerArea   = sizeX * sizeZ;
+        final int bands       = distances.length;
+
+        // Layer y is decided once layer y + radius is read, and the layer below y's widest window is dropped then
+        final int window = 2 * radius + 2;
+
+        // Scratch space for the layer currently being read
+        int[] layer = new int[paddedX * paddedZ];
+        boolean[] rowNear = new boolean[paddedZ * sizeX];
+        int[] prefix = new int[Math.max(paddedX, paddedZ) + 1];
+
+        // Ring buffers of inner values, and of horizontal proximity to Safe Blocks for each distance
+        int[][] ringValues = new int[window][innerArea];
+        boolean[][][] ringNear = new boolean[bands][window][innerArea];
+        boolean[][] ringAnyNear = new boolean[bands][window];
+
+        // For each distance, the number of layers in its window in which each inner column is horizontally within range of a Safe Block
+        int[][] nearCount = new int[bands][innerArea];
+        int[] nextAdded = new int[bands];
+
+        for (int layerY = 0; layerY < height; layerY++) {
+            final int slot = layerY % window;
+
+            // Classify layer, skipping the search for Safe Blocks when the source knows there are none
+            final boolean mayHaveSafe = source.mayContainSafe(outerXStart, layerY, outerZStart, outerXStart + paddedX, layerY + 1, outerZStart + paddedZ);
+            boolean hasSafe = false;
+            for (int z = 0; z < paddedZ; z++) {
+                for (int x = 0; x < paddedX; x++) {
+                    int value = source.getValue(outerXStart + x, layerY, outerZStart + z);
+                    layer[z * paddedX + x] = value;
+                    if (mayHaveSafe && value == BlockClassifier.SAFE) hasSafe = true;
+                }
+            }
+
+            for (int z = 0; z < sizeZ; z++) {
+                System.arraycopy(layer, (z + radius) * paddedX + radius, ringValues[slot], z * sizeX, sizeX);
+            }
+
+            // Dilate layer horizontally for each distance used by a layer within that distance
+            for (int k = 0; k < bands; k++) {
+                final boolean used = usesBelow[k][Math.min(region.maxAltitude, layerY + distances[k] + 1)] - usesBelow[k][Math.min(region.maxAltitude, Math.max(0, layerY - distances[k]))] > 0;
+                ringAnyNear[k][slot] = hasSafe && used;
+                if (ringAnyNear[k][slot]) {
+                    SlabEngine.dilate(layer, paddedX, paddedZ, sizeX, sizeZ, radius, distances[k], rowNear, prefix, ringNear[k][slot]);
+                }
+            }
+
+            final int y = layerY - radius;
+            if (y < 0) continue;
+
+            // Slide each distance's window to [y - distance, y + distance]
+            for (int k = 0; k < bands; k++) {
+                final int distance = distances[k];
+                for (; nextAdded[k] <= y + distance; nextAdded[k]++) {
+                    count(nearCount[k], ringNear[k], ringAnyNear[k], nextAdded[k] % window, 1);
+                }
+                if (y - distance - 1 >= 0) {
+                    count(nearCount[k], ringNear[k], ringAnyNear[k], (y - distance - 1) % window, -1);
+                }
+            }
+
+            // Layer y now has every layer within its distance counted, so it can be decided
+            final int[] outValues = ringValues[y % window];
+            final int[] outNearCount = nearCount[bandOf[y]];
+            for (int z = 0; z < sizeZ; z++) {
+                for (int x = 0; x < sizeX; x++) {
+                    int i = z * sizeX + x;
+                    if (outNearCount[i] == 0 && outValues[i] == region.targetValue) {
+                        sink.replace(region.xStart + x, y, region.zStart + z, region.targetValue);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void count(int[] nearCount, boolean[][] ringNear, boolean[] ringAnyNear, int slot, int delta) {
+        if (!ringAnyNear[slot]) return;
+
+        final boolean[] near = ringNear[slot];
+        for (int i = 0; i < nearCount.length; i++) {
+            if (near[i]) nearCount[i] += delta;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+/**
+ * Supplies the classification value (see BlockClassifier) of blocks at world positions.
+ */
+public interface ClassSource {
+    int getValue(int x, int y, int z);
+
+    /**
+     * Lets engines skip work in areas without Safe Blocks.
+     * Sources that can't tell cheaply always return true.
+     *
+     * @return false only if no block in [x0, x1) * [y0, y1) * [z0, z1) is a Safe Block
+     */
+    default boolean mayContainSafe(int x0, int y0, int z0, int x1, int y1, int z1) {
+        return true;
+    }
+}
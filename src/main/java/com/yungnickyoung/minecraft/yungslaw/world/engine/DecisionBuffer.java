@@ -0,0 +1,29 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+import java.util.Arrays;
+
+/**
+ * Records decisions as flat x, y, z, value quadruples, so they can be made on one thread and written on another.
+ */
+public class DecisionBuffer implements ReplacementSink {
+    private int[] decisions = new int[256];
+    private int size = 0;
+
+    @Override
+    public void replace(int x, int y, int z, int value) {
+        if (size + 4 > decisions.length) decisions = Arrays.copyOf(decisions, decisions.length * 2);
+        decisions[size++] = x;
+        decisions[size++] = y;
+        decisions[size++] = z;
+        decisions[size++] = value;
+    }
+
+    /**
+     * Passes every recorded decision to a sink, in the order they were made.
+     */
+    public void replay(ReplacementSink sink) {
+        for (int i = 0; i < size; i += 4) {
+            sink.replace(decisions[i], decisions[i + 1], decisions[i + 2], decisions[i + 3]);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+/**
+ * The available replacement engines. All engines make the same decisions, but perform differently.
+ */
+public enum EngineType {
+    /** Picks an engine for each chunk based on its settings */
+    AUTO(null),
+    /** The original engine. Classifies the whole padded volume at once */
+    GRID(new GridEngine()),
+    /** Streams the padded volume one Y layer at a time. Memory is independent of Max Altitude */
+    SLAB(new SlabEngine()),
+    /** Decides large boxes at once, only refining near Safe Blocks. Cost is independent of Generation Distance */
+    PYRAMID(new PyramidEngine()),
+    /** Expands around Safe Blocks only. Falls back to SLAB when Safe Blocks turn out to be common */
+    SPARSE(new SparseEngine());
+
+    private final ReplacementEngine engine;
+
+    EngineType(ReplacementEngine engine) {
+        this.engine = engine;
+    }
+
+    public ReplacementEngine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,67 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+
+/**
+ * The original engine.
+ * Classifies the entire padded volume into a 3-D array before marking and processing any blocks.
+ * Memory use grows with Max Altitude, so this is mostly kept as a reference for the other engines.
+ */
+public class GridEngine implements ReplacementEngine {
+    @Override
+    public void process(ReplacementRegion region, ClassSource source, ReplacementSink sink) {
+        final int radius      = region.radius;
+        final int maxAltitude = region.maxAltitude;
+        final int outerXStart = region.getOuterXStart();
+        final int outerZStart = region.getOuterZStart();
+        final int sizeX       = region.getPaddedSizeX();
+        final int sizeZ       = region.getPaddedSizeZ();
+        final int height      = region.getPaddedHeight();
+
+        // 3-D array of values we set for each block. See BlockClassifier for the meaning of each value
+        int[][][] values = new int[sizeX][height][sizeZ];
+
+        // Initialize values
+        for (int x = 0; x < sizeX; x++) {
+            for (int z = 0; z < sizeZ; z++) {
+                for (int y = 0; y < height; y++) {
+                    values[x][y][z] = source.getValue(outerXStart + x, y, outerZStart + z);
+                }
+            }
+        }
+
+        // Update blocks around Safe Blocks
+        for (int x = 0; x < sizeX; x++) {
+            for (int z = 0; z < sizeZ; z++) {
+                for (int y = 0; y < height; y++) {
+                    // Mark blocks within radius distance of Safe Blocks as safe from processing (1)
+                    if (values[x][y][z] == BlockClassifier.SAFE) {
+                        for (int offsetX = x - radius; offsetX <= x + radius; offsetX++) {
+                            if (offsetX < radius || offsetX > region.sizeX - 1 + radius) continue;
+
+                            for (int offsetZ = z - radius; offsetZ <= z + radius; offsetZ++) {
+                                if (offsetZ < radius || offsetZ > region.sizeZ - 1 + radius) continue;
+
+                                for (int offsetY = y - radius; offsetY <= y + radius; offsetY++) {
+                                    if (offsetY < 0 || offsetY >= height) continue;
+                                    values[offsetX][offsetY][offsetZ] = Math.min(values[offsetX][offsetY][offsetZ], BlockClassifier.NEAR_SAFE);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // Process marked blocks
+        for (int x = radius; x < region.sizeX + radius; x++) {
+            for (int z = radius; z < region.sizeZ + radius; z++) {
+                for (int y = 0; y < maxAltitude; y++) {
+                    if (values[x][y][z] == region.targetValue) {
+                        sink.replace(outerXStart + x, y, outerZStart + z, region.targetValue);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Splits a region into Y slabs and decides them concurrently on a shared worker pool.
+ *
+ * Each slab is streamed by the SLAB engine with a halo of radius layers above and below it, so slabs don't depend on
+ * each other. Decisions are buffered per slab and passed to the sink on the calling thread once every slab is done,
+ * so sinks never need to be thread-safe. The source, however, is read from several threads at once, and must allow it.
+ * Callers may also take the decisions with decide, and write them whenever they like.
+ */
+public class ParallelEngine implements ReplacementEngine {
+    /** Slabs thinner than this spend more time reading halos than deciding their own layers */
+    private static final int MIN_SLAB_HEIGHT = 16;
+
+    private static ForkJoinPool pool;
+
+    /**
+     * @return the pool shared by all of YUNG's Law's parallel work
+     */
+    public static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), poolIn -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(poolIn);
+                thread.setName("YUNG's Law Worker " + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+
+    @Override
+    public void process(ReplacementRegion region, ClassSource source, ReplacementSink sink) {
+        decide(region, source).replay(sink);
+    }
+
+    /**
+     * Decides the region without writing anything, so the decisions can be passed to a sink separately.
+     */
+    public DecisionBuffer decide(ReplacementRegion region, ClassSource source) {
+        final ForkJoinPool pool = getPool();
+        final int slabHeight = Math.max(Math.max(MIN_SLAB_HEIGHT, 2 * region.radius), ceilDiv(region.maxAltitude, pool.getParallelism()));
+        final int slabCount = ceilDiv(region.maxAltitude, slabHeight);
+
+        final DecisionBuffer decisions = new DecisionBuffer();
+        if (slabCount <= 1) {
+            SlabEngine.processLayers(region, source, decisions, 0, region.maxAltitude);
+            return decisions;
+        }
+
+        List<ForkJoinTask<DecisionBuffer>> tasks = new ArrayList<>(slabCount);
+        for (int i = 0; i < slabCount; i++) {
+            final int yStart = i * slabHeight;
+            final int yEnd = Math.min(region.maxAltitude, yStart + slabHeight);
+            tasks.add(pool.submit(() -> {
+                DecisionBuffer buffer = new DecisionBuffer();
+                SlabEngine.processLayers(region, source, buffer, yStart, yEnd);
+                return buffer;
+            }));
+        }
+
+        // Gather on this thread, in order
+        for (ForkJoinTask<DecisionBuffer> task : tasks) {
+            try {
+                task.get().replay(decisions);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        return decisions;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+}
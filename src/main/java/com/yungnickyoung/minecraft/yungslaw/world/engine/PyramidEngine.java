@@ -0,0 +1,175 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+
+/**
+ * Decides the region hierarchically so that large Generation Distances stay cheap.
+ *
+ * While reading the padded volume, a summed-volume table of Safe Blocks is built. Any box's Safe Block count can then
+ * be found in constant time, no matter its size. Starting with 16x16x16 sections, each box is checked against two bounds:
+ *   - Far: the box grown by the radius holds no Safe Block, so every target block in it is replaced.
+ *   - Protected: the box shrunk by the radius (the area within range of every block in it) holds a Safe Block,
+ *     so nothing in it is replaced.
+ * Boxes matching neither are split into 4x4x4 bricks and checked again, and only bricks on the boundary of a Safe Block's
+ * range are decided block by block. Past reading the volume, the cost no longer depends on the radius.
+ */
+public class PyramidEngine implements ReplacementEngine {
+    /** Box sizes for each level of the pyramid, from coarsest to finest */
+    private static final int[] LEVELS = {16, 4, 1};
+
+    @Override
+    public void process(ReplacementRegion region, ClassSource source, ReplacementSink sink) {
+        new Pass(region).run(source, sink);
+    }
+
+    private static class Pass {
+        private final ReplacementRegion region;
+        private final int radius;
+        private final int paddedX;
+        private final int paddedZ;
+        private final int height;
+        private final int strideZ;
+        private final int strideY;
+
+        /** Summed-volume table of Safe Blocks. Entry (x, y, z) holds the count in [0, x) * [0, y) * [0, z) of the padded volume */
+        private final int[] safeSums;
+        /** Values of the inner area's blocks, indexed by (y * sizeZ + z) * sizeX + x */
+        private final byte[] innerValues;
+
+        private Pass(ReplacementRegion region) {
+            this.region = region;
+            this.radius = region.radius;
+            this.paddedX = region.getPaddedSizeX();
+            this.paddedZ = region.getPaddedSizeZ();
+            this.height = region.getPaddedHeight();
+            this.strideZ = paddedX + 1;
+            this.strideY = (paddedX + 1) * (paddedZ + 1);
+            this.safeSums = new int[(height + 1) * strideY];
+            this.innerValues = new byte[region.sizeX * region.sizeZ * region.maxAltitude];
+        }
+
+        private void run(ClassSource source, ReplacementSink sink) {
+            read(source);
+
+            // Decide each section of the inner area
+            final int step = LEVELS[0];
+            for (int y = 0; y < region.maxAltitude; y += step) {
+                for (int z = 0; z < region.sizeZ; z += step) {
+                    for (int x = 0; x < region.sizeX; x += step) {
+                        decide(0, x, y, z,
+                            Math.min(x + step, region.sizeX),
+                            Math.min(y + step, region.maxAltitude),
+                            Math.min(z + step, region.sizeZ),
+                            sink);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Classifies the padded volume, storing the inner area's values and accumulating the summed-volume table.
+         */
+        private void read(ClassSource source) {
+            final int outerXStart = region.getOuterXStart();
+            final int outerZStart = region.getOuterZStart();
+
+            for (int y = 0; y < height; y++) {
+                final boolean innerLayer = y < region.maxAltitude;
+                for (int z = 0; z < paddedZ; z++) {
+                    final boolean innerRow = innerLayer && z >= radius && z < region.sizeZ + radius;
+                    int rowCount = 0;
+                    for (int x = 0; x < paddedX; x++) {
+                        int value = source.getValue(outerXStart + x, y, outerZStart + z);
+                        if (innerRow && x >= radius && x < region.sizeX + radius) {
+                            innerValues[innerIndex(x - radius, y, z - radius)] = (byte) value;
+                        }
+                        if (value == BlockClassifier.SAFE) rowCount++;
+
+                        // S(x+1, y+1, z+1) = S(x+1, y, z+1) + [layer y's count over [0, x] * [0, z - 1]] + row count
+                        final int index = sumIndex(x + 1, y + 1, z + 1);
+                        safeSums[index] = safeSums[index - strideY]
+                            + safeSums[index - strideZ] - safeSums[index - strideZ - strideY]
+                            + rowCount;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Decides the inner box [x0, x1) * [y0, y1) * [z0, z1) at the given pyramid level.
+         */
+        private void decide(int level, int x0, int y0, int z0, int x1, int y1, int z1, ReplacementSink sink) {
+            // Padded coordinates
+            final int px0 = x0 + radius, pz0 = z0 + radius;
+            final int px1 = x1 + radius, pz1 = z1 + radius;
+
+            // Far: no Safe Block within range of any block in the box
+            if (countSafe(px0 - radius, y0 - radius, pz0 - radius, px1 + radius, y1 + radius, pz1 + radius) == 0) {
+                replaceAll(x0, y0, z0, x1, y1, z1, sink);
+                return;
+            }
+
+            // Protected: a Safe Block within range of every block in the box
+            if (x1 - x0 <= 2 * radius + 1 && y1 - y0 <= 2 * radius + 1 && z1 - z0 <= 2 * radius + 1
+                && countSafe(px1 - 1 - radius, y1 - 1 - radius, pz1 - 1 - radius, px0 + radius + 1, y0 + radius + 1, pz0 + radius + 1) > 0) {
+                return;
+            }
+
+            // Boundary: refine
+            final int step = LEVELS[level + 1];
+            for (int y = y0; y < y1; y += step) {
+                for (int z = z0; z < z1; z += step) {
+                    for (int x = x0; x < x1; x += step) {
+                        if (step == 1) {
+                            if (innerValues[innerIndex(x, y, z)] == region.targetValue
+                                && countSafe(x, y - radius, z, x + 2 * radius + 1, y + radius + 1, z + 2 * radius + 1) == 0) {
+                                sink.replace(region.xStart + x, y, region.zStart + z, region.targetValue);
+                            }
+                        } else {
+                            decide(level + 1, x, y, z, Math.min(x + step, x1), Math.min(y + step, y1), Math.min(z + step, z1), sink);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void replaceAll(int x0, int y0, int z0, int x1, int y1, int z1, ReplacementSink sink) {
+            for (int y = y0; y < y1; y++) {
+                for (int z = z0; z < z1; z++) {
+                    for (int x = x0; x < x1; x++) {
+                        if (innerValues[innerIndex(x, y, z)] == region.targetValue) {
+                            sink.replace(region.xStart + x, y, region.zStart + z, region.targetValue);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return number of Safe Blocks in the padded-coordinate box [x0, x1) * [y0, y1) * [z0, z1), clipped to the padded volume
+         */
+        private int countSafe(int x0, int y0, int z0, int x1, int y1, int z1) {
+            x0 = clamp(x0, paddedX); x1 = clamp(x1, paddedX);
+            y0 = clamp(y0, height);  y1 = clamp(y1, height);
+            z0 = clamp(z0, paddedZ); z1 = clamp(z1, paddedZ);
+            if (x0 >= x1 || y0 >= y1 || z0 >= z1) return 0;
+
+            return safeSums[sumIndex(x1, y1, z1)]
+                - safeSums[sumIndex(x0, y1, z1)] - safeSums[sumIndex(x1, y0, z1)] - safeSums[sumIndex(x1, y1, z0)]
+                + safeSums[sumIndex(x0, y0, z1)] + safeSums[sumIndex(x0, y1, z0)] + safeSums[sumIndex(x1, y0, z0)]
+                - safeSums[sumIndex(x0, y0, z0)];
+        }
+
+        private int sumIndex(int x, int y, int z) {
+            return y * strideY + z * strideZ + x;
+        }
+
+        private int innerIndex(int x, int y, int z) {
+            return (y * region.sizeZ + z) * region.sizeX + x;
+        }
+
+        private static int clamp(int value, int max) {
+            return value < 0 ? 0 : (value > max ? max : value);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+/**
+ * Decides which blocks in a region are far enough from Safe Blocks to be replaced.
+ * All engines must produce exactly the same decisions for the same input.
+ */
+public interface ReplacementEngine {
+    /**
+     * Classifies the region padded by its radius, marks blocks within range of Safe Blocks,
+     * and passes every block that should be replaced to the sink.
+     * @param region The area to process
+     * @param source Classification values for every position in the padded region
+     * @param sink Receiver of replacement decisions
+     */
+    void process(ReplacementRegion region, ClassSource source, ReplacementSink sink);
+}
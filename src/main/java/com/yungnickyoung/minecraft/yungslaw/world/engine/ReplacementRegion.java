@@ -0,0 +1,54 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+/**
+ * The inner area an engine generates on, along with the settings that determine its padding.
+ * The inner area spans [xStart, xStart + sizeX) and [zStart, zStart + sizeZ), from y = 0 up to (but not including) maxAltitude.
+ */
+public class ReplacementRegion {
+    public final int xStart;
+    public final int zStart;
+    public final int sizeX;
+    public final int sizeZ;
+    public final int radius;
+    public final int maxAltitude;
+    /** Value of blocks that get replaced when outside the radius of all Safe Blocks */
+    public final int targetValue;
+
+    public ReplacementRegion(int xStart, int zStart, int sizeX, int sizeZ, int radius, int maxAltitude, int targetValue) {
+        this.xStart = xStart;
+        this.zStart = zStart;
+        this.sizeX = sizeX;
+        this.sizeZ = sizeZ;
+        this.radius = radius;
+        this.maxAltitude = maxAltitude;
+        this.targetValue = targetValue;
+    }
+
+    /**
+     * Bounds for the outer area.
+     * Pads the inner area by radius blocks in each direction in order to find any Safe Blocks
+     * outside the inner area that may impact blocks within the inner area
+     */
+    public int getOuterXStart() {
+        return xStart - radius;
+    }
+
+    public int getOuterZStart() {
+        return zStart - radius;
+    }
+
+    public int getPaddedSizeX() {
+        return sizeX + 2 * radius;
+    }
+
+    public int getPaddedSizeZ() {
+        return sizeZ + 2 * radius;
+    }
+
+    /**
+     * @return number of layers that must be read, starting from y = 0
+     */
+    public int getPaddedHeight() {
+        return maxAltitude + radius;
+    }
+}
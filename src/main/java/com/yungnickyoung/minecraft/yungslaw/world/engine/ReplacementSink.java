@@ -0,0 +1,11 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+/**
+ * Receives the positions an engine has decided to replace.
+ */
+public interface ReplacementSink {
+    /**
+     * @param value The classification value of the block being replaced
+     */
+    void replace(int x, int y, int z, int value);
+}
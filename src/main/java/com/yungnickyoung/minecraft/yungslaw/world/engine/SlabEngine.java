@@ -0,0 +1,139 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+
+import java.util.Arrays;
+
+/**
+ * Streams the padded region upwards one Y layer at a time.
+ *
+ * Each layer is classified and dilated horizontally as soon as it is read. A layer's horizontal results are kept in a
+ * ring buffer of 2r+1 layers, so once layer y + r has been read, every block in layer y can be decided and emitted.
+ * Peak memory depends only on the radius and the region's footprint, not on Max Altitude.
+ */
+public class SlabEngine implements ReplacementEngine {
+    @Override
+    public void process(ReplacementRegion region, ClassSource source, ReplacementSink sink) {
+        processLayers(region, source, sink, 0, region.maxAltitude);
+    }
+
+    /**
+     * Decides only the inner layers in [yStart, yEnd), reading the radius layers below and above them as a halo.
+     * Separate ranges can be processed independently, which is what the ParallelEngine relies on.
+     */
+    static void processLayers(ReplacementRegion region, ClassSource source, ReplacementSink sink, int yStart, int yEnd) {
+        final int radius      = region.radius;
+        final int outerXStart = region.getOuterXStart();
+        final int outerZStart = region.getOuterZStart();
+        final int paddedX     = region.getPaddedSizeX();
+        final int paddedZ     = region.getPaddedSizeZ();
+        final int height      = region.getPaddedHeight();
+        final int sizeX       = region.sizeX;
+        final int sizeZ       = region.sizeZ;
+        final int innerArea   = sizeX * sizeZ;
+        final int window      = 2 * radius + 1;
+
+        // Scratch space for the layer currently being read
+        int[] layer = new int[paddedX * paddedZ];
+        boolean[] rowNear = new boolean[paddedZ * sizeX];
+        int[] prefix = new int[Math.max(paddedX, paddedZ) + 1];
+
+        // Ring buffers holding the last 2r+1 layers' inner values and horizontal proximity to Safe Blocks
+        int[][] ringValues = new int[window][innerArea];
+        boolean[][] ringNear = new boolean[window][innerArea];
+
+        // Number of layers in the current window in which each inner column is horizontally within range of a Safe Block
+        int[] nearCount = new int[innerArea];
+
+        final int firstLayer = Math.max(0, yStart - radius);
+        final int lastLayer  = Math.min(height, yEnd + radius);
+
+        for (int layerY = firstLayer; layerY < lastLayer; layerY++) {
+            final int slot = layerY % window;
+            final int[] values = ringValues[slot];
+            final boolean[] near = ringNear[slot];
+
+            // Classify layer, skipping the search for Safe Blocks when the source knows there are none
+            final boolean mayHaveSafe = source.mayContainSafe(outerXStart, layerY, outerZStart, outerXStart + paddedX, layerY + 1, outerZStart + paddedZ);
+            boolean hasSafe = false;
+            for (int z = 0; z < paddedZ; z++) {
+                for (int x = 0; x < paddedX; x++) {
+                    int value = source.getValue(outerXStart + x, layerY, outerZStart + z);
+                    layer[z * paddedX + x] = value;
+                    if (mayHaveSafe && value == BlockClassifier.SAFE) hasSafe = true;
+                }
+            }
+
+            for (int z = 0; z < sizeZ; z++) {
+                System.arraycopy(layer, (z + radius) * paddedX + radius, values, z * sizeX, sizeX);
+            }
+
+            // Dilate layer horizontally
+            if (hasSafe) {
+                dilate(layer, paddedX, paddedZ, sizeX, sizeZ, radius, radius, rowNear, prefix, near);
+                for (int i = 0; i < innerArea; i++) {
+                    if (near[i]) nearCount[i]++;
+                }
+            } else {
+                Arrays.fill(near, false);
+            }
+
+            // Layer y = layerY - radius now has every layer within range read, so it can be decided
+            final int y = layerY - radius;
+            if (y < yStart) continue;
+
+            final int[] outValues = ringValues[y % window];
+            for (int z = 0; z < sizeZ; z++) {
+                for (int x = 0; x < sizeX; x++) {
+                    int i = z * sizeX + x;
+                    if (nearCount[i] == 0 && outValues[i] == region.targetValue) {
+                        sink.replace(region.xStart + x, y, region.zStart + z, region.targetValue);
+                    }
+                }
+            }
+
+            // Drop the bottom layer of the window before its slot is reused
+            final int expiredY = layerY - 2 * radius;
+            if (expiredY >= firstLayer) {
+                final boolean[] expired = ringNear[expiredY % window];
+                for (int i = 0; i < innerArea; i++) {
+                    if (expired[i]) nearCount[i]--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks each inner column of a padded layer that has a Safe Block within radius along both X and Z.
+     * The square is separated into a pass along X and a pass along Z, each using prefix sums,
+     * so the cost doesn't depend on the radius.
+     *
+     * @param pad How far the layer is padded around the inner area. Must be at least the radius
+     */
+    static void dilate(int[] layer, int paddedX, int paddedZ, int sizeX, int sizeZ, int pad, int radius, boolean[] rowNear, int[] prefix, boolean[] out) {
+        final int low = pad - radius, high = pad + radius + 1;
+
+        // Pass along X, for every padded row
+        for (int z = 0; z < paddedZ; z++) {
+            final int rowStart = z * paddedX;
+            prefix[0] = 0;
+            for (int x = 0; x < paddedX; x++) {
+                prefix[x + 1] = prefix[x] + (layer[rowStart + x] == BlockClassifier.SAFE ? 1 : 0);
+            }
+            for (int x = 0; x < sizeX; x++) {
+                rowNear[z * sizeX + x] = prefix[x + high] - prefix[x + low] > 0;
+            }
+        }
+
+        // Pass along Z, for every inner column
+        for (int x = 0; x < sizeX; x++) {
+            prefix[0] = 0;
+            for (int z = 0; z < paddedZ; z++) {
+                prefix[z + 1] = prefix[z] + (rowNear[z * sizeX + x] ? 1 : 0);
+            }
+            for (int z = 0; z < sizeZ; z++) {
+                out[z * sizeX + x] = prefix[z + high] - prefix[z + low] > 0;
+            }
+        }
+    }
+}
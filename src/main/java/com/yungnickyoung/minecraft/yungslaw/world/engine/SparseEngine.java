@@ -0,0 +1,155 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+
+import java.util.Arrays;
+
+/**
+ * Decides the region by expanding around Safe Blocks only, for volumes where Safe Blocks are rare.
+ *
+ * The padded volume is read once, keeping only the position of every Safe Block, packed into a single int, and a bit
+ * for every target block of the inner area. Each Safe Block then clears the bits of the inner blocks within range of it,
+ * one row at a time, and every target block left is replaced. Cost grows with the number of Safe Blocks rather than
+ * the size of the volume, so once the Safe Blocks read so far make expanding them more expensive than a dense pass,
+ * the region is handed to the SLAB engine instead. The SLAB engine is given the Safe Blocks and target blocks already
+ * read, so no block is ever read twice.
+ */
+public class SparseEngine implements ReplacementEngine {
+    private final ReplacementEngine denseEngine = new SlabEngine();
+
+    @Override
+    public void process(ReplacementRegion region, ClassSource source, ReplacementSink sink) {
+        final int radius      = region.radius;
+        final int outerXStart = region.getOuterXStart();
+        final int outerZStart = region.getOuterZStart();
+        final int paddedX     = region.getPaddedSizeX();
+        final int paddedZ     = region.getPaddedSizeZ();
+        final int height      = region.getPaddedHeight();
+        final int sizeX       = region.sizeX;
+        final int sizeZ       = region.sizeZ;
+        final int window      = 2 * radius + 1;
+
+        // Each Safe Block protects up to window^2 rows. Past this many, a dense pass is cheaper
+        final long maxSeeds = Math.max(1, (long) paddedX * paddedZ * height / ((long) window * window));
+
+        // Safe Block positions in the padded volume, indexed by (y * paddedZ + z) * paddedX + x. Always in ascending order
+        int[] seeds = new int[64];
+        int seedCount = 0;
+        // Target blocks of the inner area, indexed by (y * sizeZ + z) * sizeX + x
+        final long[] targets = new long[(sizeX * sizeZ * region.maxAltitude + 63) >> 6];
+
+        for (int y = 0; y < height; y++) {
+            for (int z = 0; z < paddedZ; z++) {
+                for (int x = 0; x < paddedX; x++) {
+                    final int value = source.getValue(outerXStart + x, y, outerZStart + z);
+                    if (value == BlockClassifier.SAFE) {
+                        final int index = (y * paddedZ + z) * paddedX + x;
+                        if (seedCount == seeds.length) seeds = Arrays.copyOf(seeds, seeds.length * 2);
+                        seeds[seedCount++] = index;
+                        if (seedCount > maxSeeds) {
+                            denseEngine.process(region, resume(region, source, seeds, seedCount, targets, index + 1), sink);
+                            return;
+                        }
+                    } else if (value == region.targetValue && isInner(region, x, y, z)) {
+                        final int i = (y * sizeZ + z - radius) * sizeX + x - radius;
+                        targets[i >> 6] |= 1L << i;
+                    }
+                }
+            }
+        }
+
+        // Clear every inner block within range of a Safe Block
+        for (int i = 0; i < seedCount; i++) {
+            final int seed = seeds[i];
+            final int seedX = seed % paddedX;
+            final int seedZ = seed / paddedX % paddedZ;
+            final int seedY = seed / (paddedX * paddedZ);
+
+            // Inner coordinates are padded coordinates minus the radius
+            final int x0 = Math.max(0, seedX - 2 * radius), x1 = Math.min(sizeX - 1, seedX);
+            final int z0 = Math.max(0, seedZ - 2 * radius), z1 = Math.min(sizeZ - 1, seedZ);
+            final int y0 = Math.max(0, seedY - radius),     y1 = Math.min(region.maxAltitude - 1, seedY + radius);
+            if (x0 > x1 || z0 > z1) continue;
+
+            for (int y = y0; y <= y1; y++) {
+                for (int z = z0; z <= z1; z++) {
+                    final int rowStart = (y * sizeZ + z) * sizeX;
+                    clear(targets, rowStart + x0, rowStart + x1 + 1);
+                }
+            }
+        }
+
+        // Replace every target block left
+        for (int word = 0; word < targets.length; word++) {
+            long bits = targets[word];
+            while (bits != 0) {
+                final int i = word << 6 | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                sink.replace(region.xStart + i % sizeX, i / (sizeX * sizeZ), region.zStart + i / sizeX % sizeZ, region.targetValue);
+            }
+        }
+    }
+
+    /**
+     * @return true if the padded position is part of the inner area
+     */
+    private static boolean isInner(ReplacementRegion region, int x, int y, int z) {
+        return y < region.maxAltitude
+            && x >= region.radius && x < region.radius + region.sizeX
+            && z >= region.radius && z < region.radius + region.sizeZ;
+    }
+
+    /**
+     * Clears bits [from, to).
+     */
+    private static void clear(long[] bits, int from, int to) {
+        final int firstWord = from >> 6, lastWord = (to - 1) >> 6;
+        final long firstMask = -1L << from, lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            bits[firstWord] &= ~(firstMask & lastMask);
+            return;
+        }
+        bits[firstWord] &= ~firstMask;
+        for (int word = firstWord + 1; word < lastWord; word++) bits[word] = 0;
+        bits[lastWord] &= ~lastMask;
+    }
+
+    /**
+     * Creates a source that answers from what was kept of the positions read so far, and only reads the rest of the
+     * padded volume from the source. Engines only tell Safe Blocks and target blocks apart from the rest, so any other
+     * position already read is answered as Untouchable.
+     *
+     * @param readCount Number of padded positions already read, in index order
+     */
+    private static ClassSource resume(ReplacementRegion region, ClassSource source, int[] seeds, int seedCount, long[] targets, int readCount) {
+        final int radius      = region.radius;
+        final int outerXStart = region.getOuterXStart();
+        final int outerZStart = region.getOuterZStart();
+        final int paddedX     = region.getPaddedSizeX();
+        final int paddedZ     = region.getPaddedSizeZ();
+
+        return new ClassSource() {
+            @Override
+            public int getValue(int x, int y, int z) {
+                final int localX = x - outerXStart, localZ = z - outerZStart;
+                if (localX >= 0 && localX < paddedX && localZ >= 0 && localZ < paddedZ && y >= 0) {
+                    final int index = (y * paddedZ + localZ) * paddedX + localX;
+                    if (index < readCount) {
+                        if (Arrays.binarySearch(seeds, 0, seedCount, index) >= 0) return BlockClassifier.SAFE;
+                        if (isInner(region, localX, y, localZ)) {
+                            final int i = (y * region.sizeZ + localZ - radius) * region.sizeX + localX - radius;
+                            if ((targets[i >> 6] & 1L << i) != 0) return region.targetValue;
+                        }
+                        return BlockClassifier.UNTOUCHABLE;
+                    }
+                }
+                return source.getValue(x, y, z);
+            }
+
+            @Override
+            public boolean mayContainSafe(int x0, int y0, int z0, int x1, int y1, int z1) {
+                return source.mayContainSafe(x0, y0, z0, x1, y1, z1);
+            }
+        };
+    }
+}
@@ -0,0 +1,219 @@
+package com.yungnickyoung.minecraft.yungslaw.world.sink;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import net.minecraft.network.play.server.SPacketChunkData;
+import net.minecraft.server.management.PlayerChunkMapEntry;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.common.ForgeModContainer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Updates players about replacements in chunks they had already been sent.
+ *
+ * Chunks that haven't been sent yet need nothing, since players will receive them with the replacements in place.
+ * For the rest, changes are gathered until the end of the tick, so a chunk changed by several regions in one tick
+ * is only updated once. A handful of changes are passed on to the chunk's tracker as block changes. Past Forge's
+ * clumping threshold, the changed sections are resent in a single chunk packet.
+ * The packets and bytes this takes are estimated and compared to sending every change as its own block change packet,
+ * and can be shown with /yungslaw stats.
+ */
+public class ChunkResender {
+    /** Number of flushes that sent something between log messages */
+    private static final int LOG_INTERVAL = 256;
+
+    /** Estimated size of an SPacketBlockChange: packet ID, position, block state ID and length prefix */
+    private static final int BLOCK_CHANGE_BYTES = 12;
+    /** Estimated size of an SPacketMultiBlockChange, apart from its records: packet ID, chunk coordinates, record count and length prefix */
+    private static final int MULTI_BLOCK_CHANGE_BYTES = 11;
+    /** Estimated size of each record of an SPacketMultiBlockChange: position and block state ID */
+    private static final int MULTI_BLOCK_CHANGE_RECORD_BYTES = 4;
+    /** Estimated size of an SPacketChunkData, apart from its sections and tile entities */
+    private static final int CHUNK_DATA_BYTES = 16;
+
+    static final Stats STATS = new Stats();
+
+    private static final Map<WorldServer, Map<Long, Pending>> pending = new WeakHashMap<>();
+
+    /**
+     * Queues an update for the chunk if it was already sent to players.
+     */
+    static void changed(WorldServer world, Chunk chunk, Changes changes) {
+        if (changes.count == 0) return;
+
+        PlayerChunkMapEntry entry = world.getPlayerChunkMap().getEntry(chunk.x, chunk.z);
+        if (entry == null || !entry.isSentToPlayers()) {
+            STATS.unsentChanges += changes.count;
+            return;
+        }
+
+        STATS.sentChanges += changes.count;
+        pending.computeIfAbsent(world, key -> new HashMap<>())
+            .computeIfAbsent(ChunkPos.asLong(chunk.x, chunk.z), key -> new Pending(chunk))
+            .changes.addAll(changes);
+    }
+
+    /**
+     * Sends every queued update. Called at the end of each server tick.
+     */
+    public static void flush() {
+        if (pending.isEmpty()) return;
+
+        for (Map.Entry<WorldServer, Map<Long, Pending>> worldEntry : pending.entrySet()) {
+            for (Pending update : worldEntry.getValue().values()) {
+                send(worldEntry.getKey(), update);
+            }
+        }
+        pending.clear();
+
+        if (++STATS.flushes % LOG_INTERVAL == 0) {
+            YungsLaw.LOGGER.debug("Chunk updates: {}", STATS);
+        }
+    }
+
+    /**
+     * @return counters for how replacements reached players, since startup
+     */
+    public static Stats getStats() {
+        return STATS;
+    }
+
+    /**
+     * Logs how replacements reached players, if any were made since startup.
+     */
+    public static void logStats() {
+        if (STATS.directWrites + STATS.unsentChanges + STATS.sentChanges > 0) {
+            YungsLaw.LOGGER.info("Chunk updates: {}", STATS);
+        }
+    }
+
+    /**
+     * Drops queued updates for an unloading world.
+     */
+    public static void reset(World world) {
+        pending.remove(world);
+    }
+
+    private static void send(WorldServer world, Pending update) {
+        // The players may have left, in which case they'll be sent the whole chunk when they come back
+        PlayerChunkMapEntry entry = world.getPlayerChunkMap().getEntry(update.chunk.x, update.chunk.z);
+        if (entry == null || !entry.isSentToPlayers() || entry.getChunk() != update.chunk) return;
+
+        final Changes changes = update.changes;
+        if (changes.count < ForgeModContainer.clumpingThreshold) {
+            for (int i = 0; i < changes.stored; i++) {
+                final short position = changes.positions[i];
+                entry.blockChanged((position >> 12) & 15, position & 255, (position >> 8) & 15);
+            }
+            STATS.blockChangesForwarded += changes.count;
+            // The tracker sends a single block change on its own, and several as one multi block change
+            STATS.bytesSent += changes.count == 1 ? BLOCK_CHANGE_BYTES : MULTI_BLOCK_CHANGE_BYTES + changes.count * MULTI_BLOCK_CHANGE_RECORD_BYTES;
+        } else {
+            entry.sendPacket(new SPacketChunkData(update.chunk, changes.sectionMask));
+            STATS.resends++;
+            STATS.sectionsResent += Integer.bitCount(changes.sectionMask);
+            STATS.blockChangesCoalesced += changes.count;
+            STATS.bytesSent += CHUNK_DATA_BYTES + getSectionBytes(world, update.chunk, changes.sectionMask);
+        }
+        STATS.packetsSent++;
+        STATS.packetsAvoided += changes.count - 1;
+        STATS.bytesIfPerBlock += (long) changes.count * BLOCK_CHANGE_BYTES;
+    }
+
+    /**
+     * @return the size of the given sections in a chunk packet, as calculated by SPacketChunkData
+     */
+    private static int getSectionBytes(WorldServer world, Chunk chunk, int sectionMask) {
+        int bytes = 0;
+        ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+        for (int i = 0; i < sections.length; i++) {
+            if ((sectionMask & 1 << i) == 0 || sections[i] == Chunk.NULL_BLOCK_STORAGE) continue;
+
+            bytes += sections[i].getData().getSerializedSize() + sections[i].getBlockLight().getData().length;
+            if (world.provider.hasSkyLight()) bytes += sections[i].getSkyLight().getData().length;
+        }
+        return bytes;
+    }
+
+    /**
+     * The blocks changed in a chunk. Positions are only kept up to Forge's clumping threshold,
+     * since past it only the changed sections matter.
+     */
+    static class Changes {
+        private int count;
+        private int sectionMask;
+        private int stored;
+        private short[] positions = new short[8];
+
+        void add(int x, int y, int z) {
+            sectionMask |= 1 << (y >> 4);
+            if (stored < ForgeModContainer.clumpingThreshold) {
+                if (stored == positions.length) positions = Arrays.copyOf(positions, stored * 2);
+                positions[stored++] = (short) ((x & 15) << 12 | (z & 15) << 8 | y);
+            }
+            count++;
+        }
+
+        private void addAll(Changes other) {
+            sectionMask |= other.sectionMask;
+            for (int i = 0; i < other.stored; i++) {
+                final short position = other.positions[i];
+                add((position >> 12) & 15, position & 255, (position >> 8) & 15);
+            }
+            // Changes past the other's clumping threshold are only counted
+            count += other.count - other.stored;
+        }
+    }
+
+    private static class Pending {
+        private final Chunk chunk;
+        private final Changes changes = new Changes();
+
+        private Pending(Chunk chunk) {
+            this.chunk = chunk;
+        }
+    }
+
+    /**
+     * Counters for how replacements reached players, since startup.
+     * Byte counts are estimates of the uncompressed packets, and leave out tile entities.
+     */
+    public static class Stats {
+        /** Blocks written straight into chunk storage instead of being set */
+        long directWrites;
+        /** Changed blocks in chunks that hadn't been sent yet, which needed no update at all */
+        long unsentChanges;
+        /** Changed blocks in chunks that had already been sent */
+        long sentChanges;
+        /** Changes passed on as block changes */
+        long blockChangesForwarded;
+        /** Changes covered by a section resend instead of being tracked one by one */
+        long blockChangesCoalesced;
+        long resends;
+        long sectionsResent;
+        long flushes;
+        /** Packets sent for changes in sent chunks, and bytes they took */
+        long packetsSent;
+        long bytesSent;
+        /** Packets saved, and bytes that would have been sent, if each change in sent chunks had its own block change packet */
+        long packetsAvoided;
+        long bytesIfPerBlock;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d direct writes, %d changes in unsent chunks needed no packets, %d in sent chunks "
+                    + "(%d forwarded as block changes, %d coalesced into %d chunk resends of %d sections). "
+                    + "%d packets sent instead of %d, taking about %.1f KB instead of %.1f KB",
+                directWrites, unsentChanges, sentChanges, blockChangesForwarded, blockChangesCoalesced, resends, sectionsResent,
+                packetsSent, packetsSent + packetsAvoided, bytesSent / 1024.0, bytesIfPerBlock / 1024.0);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.yungnickyoung.minecraft.yungslaw.world.sink;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import com.yungnickyoung.minecraft.yungslaw.world.DepthProfile;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementSink;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Writes replacement decisions straight into a chunk's block storage.
+ * No lighting, neighbour or client updates happen, so this is only meant for chunks that aren't in the world yet.
+ */
+public class ChunkSink implements ReplacementSink {
+    private final Chunk chunk;
+    private final DepthProfile profile;
+    private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+    private boolean lightChanged = false;
+
+    public ChunkSink(Chunk chunk, DepthProfile profile) {
+        this.chunk = chunk;
+        this.profile = profile;
+    }
+
+    @Override
+    public void replace(int x, int y, int z, int value) {
+        ExtendedBlockStorage storage = chunk.getBlockStorageArray()[y >> 4];
+        if (storage == Chunk.NULL_BLOCK_STORAGE) return; // Empty sections only hold air, which is never replaced
+
+        IBlockState newState;
+        if (value == BlockClassifier.ORE) {
+            pos.setPos(x, y, z);
+            newState = chunk.getWorld().getBiome(pos).fillerBlock;
+        } else {
+            newState = profile.getHardBlock(y);
+        }
+
+        IBlockState oldState = storage.get(x & 15, y & 15, z & 15);
+        if (oldState.getLightOpacity() != newState.getLightOpacity()) lightChanged = true;
+        storage.set(x & 15, y & 15, z & 15, newState);
+    }
+
+    /**
+     * Rebuilds the chunk's height and sky light maps if any replacement changed how much light passes through a block.
+     */
+    public void finish() {
+        if (lightChanged) chunk.generateSkylightMap();
+    }
+}
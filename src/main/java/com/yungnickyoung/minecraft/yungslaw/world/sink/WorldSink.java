@@ -0,0 +1,98 @@
+package com.yungnickyoung.minecraft.yungslaw.world.sink;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import com.yungnickyoung.minecraft.yungslaw.world.DepthProfile;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementSink;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Applies replacement decisions to the world.
+ *
+ * Blocks are written straight into chunk storage when that's equivalent to setting them, i.e. neither block has a
+ * tile entity and both let through and emit the same light. Other blocks are set without neighbour, observer or client
+ * updates. Either way, nothing is sent to players per block: once the region is done, finish passes each changed chunk
+ * to the ChunkResender, which only updates players that had already been sent the chunk.
+ */
+public class WorldSink implements ReplacementSink {
+    /** Set the block without neighbour, observer or client updates */
+    private static final int SET_FLAGS = 16;
+
+    private final WorldServer world;
+    private final DepthProfile profile;
+    private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+    private final Map<Chunk, ChunkResender.Changes> changes = new LinkedHashMap<>();
+
+    private Chunk lastChunk;
+    private ChunkResender.Changes lastChanges;
+
+    public WorldSink(WorldServer world, DepthProfile profile) {
+        this.world = world;
+        this.profile = profile;
+    }
+
+    @Override
+    public void replace(int x, int y, int z, int value) {
+        pos.setPos(x, y, z);
+        // Ore deletion mode
+        final IBlockState newState;
+        if (value == BlockClassifier.ORE) {
+            // Replace with biome filler block
+            newState = world.getBiome(pos).fillerBlock;
+        }
+        // Replacement mode (default)
+        else {
+            newState = profile.getHardBlock(y);
+        }
+
+        final Chunk chunk = getChunk(x >> 4, z >> 4);
+        final ExtendedBlockStorage storage = chunk.getBlockStorageArray()[y >> 4];
+        final IBlockState oldState = chunk.getBlockState(x, y, z);
+        if (oldState == newState) return;
+
+        if (storage != Chunk.NULL_BLOCK_STORAGE && isDirectWrite(oldState, newState)) {
+            storage.set(x & 15, y & 15, z & 15, newState);
+            ChunkResender.STATS.directWrites++;
+        } else {
+            world.setBlockState(pos, newState, SET_FLAGS);
+        }
+        lastChanges.add(x, y, z);
+    }
+
+    /**
+     * Marks every changed chunk as modified and lets players who can already see it know about the changes.
+     */
+    public void finish() {
+        for (Map.Entry<Chunk, ChunkResender.Changes> entry : changes.entrySet()) {
+            entry.getKey().markDirty();
+            ChunkResender.changed(world, entry.getKey(), entry.getValue());
+        }
+        changes.clear();
+        lastChunk = null;
+        lastChanges = null;
+    }
+
+    private Chunk getChunk(int chunkX, int chunkZ) {
+        if (lastChunk == null || lastChunk.x != chunkX || lastChunk.z != chunkZ) {
+            lastChunk = world.getChunk(chunkX, chunkZ);
+            lastChanges = changes.computeIfAbsent(lastChunk, key -> new ChunkResender.Changes());
+        }
+        return lastChunk;
+    }
+
+    /**
+     * @return true if writing the new state straight into storage has the same result as setting it
+     */
+    private static boolean isDirectWrite(IBlockState oldState, IBlockState newState) {
+        return oldState.getLightOpacity() == newState.getLightOpacity()
+            && oldState.getLightValue() == newState.getLightValue()
+            && !oldState.getBlock().hasTileEntity(oldState)
+            && !newState.getBlock().hasTileEntity(newState);
+    }
+}
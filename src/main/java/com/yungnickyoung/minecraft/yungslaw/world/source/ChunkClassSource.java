@@ -0,0 +1,139 @@
+package com.yungnickyoung.minecraft.yungslaw.world.source;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementRegion;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import javax.annotation.Nullable;
+
+/**
+ * Classifies blocks read straight from the block storage of a grid of chunks covering a region's padded area.
+ * Never loads or generates chunks; columns that haven't been provided read as the missing value.
+ * Sections are classified through their palettes (see SectionClasses), so block states aren't looked up per block.
+ */
+public class ChunkClassSource implements ClassSource {
+    private final BlockClassifier classifier;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int chunksX;
+    private final int chunksZ;
+    private final ExtendedBlockStorage[][] columns;
+    private final SectionClasses[][] sectionClasses;
+    private final int missingValue;
+    private final int airValue;
+
+    /**
+     * @param missingValue Value used for positions in chunks that haven't been provided
+     */
+    public ChunkClassSource(BlockClassifier classifier, ReplacementRegion region, int missingValue) {
+        this.classifier = classifier;
+        this.minChunkX = getMinChunkX(region);
+        this.minChunkZ = getMinChunkZ(region);
+        this.chunksX = getMaxChunkX(region) - minChunkX + 1;
+        this.chunksZ = getMaxChunkZ(region) - minChunkZ + 1;
+        this.columns = new ExtendedBlockStorage[chunksX * chunksZ][];
+        this.sectionClasses = new SectionClasses[chunksX * chunksZ][];
+        this.missingValue = missingValue;
+        this.airValue = classifier.classify(Blocks.AIR.getDefaultState());
+    }
+
+    public void setColumn(int chunkX, int chunkZ, ExtendedBlockStorage[] storages) {
+        final int index = (chunkZ - minChunkZ) * chunksX + (chunkX - minChunkX);
+        columns[index] = storages;
+        sectionClasses[index] = storages == null ? null : new SectionClasses[storages.length];
+    }
+
+    public void setChunk(Chunk chunk) {
+        setColumn(chunk.x, chunk.z, chunk.getBlockStorageArray());
+    }
+
+    /**
+     * @return true if the given chunk is part of the grid but hasn't been provided
+     */
+    public boolean isColumnMissing(int chunkX, int chunkZ) {
+        chunkX -= minChunkX;
+        chunkZ -= minChunkZ;
+        return chunkX >= 0 && chunkX < chunksX && chunkZ >= 0 && chunkZ < chunksZ && columns[chunkZ * chunksX + chunkX] == null;
+    }
+
+    @Override
+    public int getValue(int x, int y, int z) {
+        final int chunkX = (x >> 4) - minChunkX;
+        final int chunkZ = (z >> 4) - minChunkZ;
+        if (chunkX < 0 || chunkX >= chunksX || chunkZ < 0 || chunkZ >= chunksZ) return missingValue;
+
+        final int index = chunkZ * chunksX + chunkX;
+        final ExtendedBlockStorage[] column = columns[index];
+        if (column == null) return missingValue;
+        if (y >> 4 >= column.length) return airValue;
+
+        final ExtendedBlockStorage storage = column[y >> 4];
+        if (storage == Chunk.NULL_BLOCK_STORAGE) return airValue;
+
+        final SectionClasses section = getSectionClasses(index, y >> 4);
+        if (section == null) return classifier.classify(storage.get(x & 15, y & 15, z & 15));
+
+        return section.getValue(x & 15, y & 15, z & 15);
+    }
+
+    @Override
+    public boolean mayContainSafe(int x0, int y0, int z0, int x1, int y1, int z1) {
+        if (x0 >= x1 || y0 >= y1 || z0 >= z1) return false;
+
+        for (int chunkZ = (z0 >> 4) - minChunkZ; chunkZ <= ((z1 - 1) >> 4) - minChunkZ; chunkZ++) {
+            for (int chunkX = (x0 >> 4) - minChunkX; chunkX <= ((x1 - 1) >> 4) - minChunkX; chunkX++) {
+                if (chunkX < 0 || chunkX >= chunksX || chunkZ < 0 || chunkZ >= chunksZ) {
+                    if (missingValue == BlockClassifier.SAFE) return true;
+                    continue;
+                }
+
+                final int index = chunkZ * chunksX + chunkX;
+                final ExtendedBlockStorage[] column = columns[index];
+                if (column == null) {
+                    if (missingValue == BlockClassifier.SAFE) return true;
+                    continue;
+                }
+
+                for (int sectionY = y0 >> 4; sectionY <= (y1 - 1) >> 4; sectionY++) {
+                    if (sectionY >= column.length || column[sectionY] == Chunk.NULL_BLOCK_STORAGE) {
+                        if (airValue == BlockClassifier.SAFE) return true;
+                        continue;
+                    }
+
+                    final SectionClasses section = getSectionClasses(index, sectionY);
+                    if (section == null || section.hasSafe()) return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    @Nullable
+    private SectionClasses getSectionClasses(int index, int sectionY) {
+        SectionClasses section = sectionClasses[index][sectionY];
+        if (section == null) {
+            section = sectionClasses[index][sectionY] = SectionClasses.of(classifier, columns[index][sectionY]);
+        }
+        return section;
+    }
+
+    public static int getMinChunkX(ReplacementRegion region) {
+        return region.getOuterXStart() >> 4;
+    }
+
+    public static int getMinChunkZ(ReplacementRegion region) {
+        return region.getOuterZStart() >> 4;
+    }
+
+    public static int getMaxChunkX(ReplacementRegion region) {
+        return (region.getOuterXStart() + region.getPaddedSizeX() - 1) >> 4;
+    }
+
+    public static int getMaxChunkZ(ReplacementRegion region) {
+        return (region.getOuterZStart() + region.getPaddedSizeZ() - 1) >> 4;
+    }
+}
@@ -0,0 +1,107 @@
+package com.yungnickyoung.minecraft.yungslaw.world.source;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BitArray;
+import net.minecraft.world.chunk.BlockStateContainer;
+import net.minecraft.world.chunk.IBlockStatePalette;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+/**
+ * Classification of a single 16x16x16 section, read through its BlockStateContainer's palette.
+ *
+ * Each palette entry is classified once, after which a block's value is just its packed palette index mapped through
+ * a small array. Sections with a local palette (at most 8 bits per block) have every entry classified up front,
+ * so a section with no Safe Block in its palette is known to have none at all.
+ */
+class SectionClasses {
+    /** Largest bits per block that still uses a section-local palette */
+    private static final int MAX_LOCAL_PALETTE_BITS = 8;
+    private static final int UNCLASSIFIED = Integer.MIN_VALUE;
+    /** Unused palette ids read as air, as in BlockStateContainer.get */
+    private static final IBlockState AIR = Blocks.AIR.getDefaultState();
+
+    private static final Field STORAGE_FIELD = findField("storage", "field_186021_b");
+    private static final Field PALETTE_FIELD = findField("palette", "field_186022_c");
+    private static final Field BITS_FIELD    = findField("bits", "field_186024_e");
+
+    private final BlockClassifier classifier;
+    private final BitArray storage;
+    private final IBlockStatePalette palette;
+    private final int[] classes;
+    private final boolean hasSafe;
+
+    private SectionClasses(BlockClassifier classifier, BitArray storage, IBlockStatePalette palette, int bits) {
+        this.classifier = classifier;
+        this.storage = storage;
+        this.palette = palette;
+        this.classes = new int[1 << bits];
+        Arrays.fill(classes, UNCLASSIFIED);
+
+        boolean hasSafe = false;
+        if (bits <= MAX_LOCAL_PALETTE_BITS) {
+            for (int id = 0; id < classes.length; id++) {
+                IBlockState state = palette.getBlockState(id);
+                classes[id] = classifier.classify(state == null ? AIR : state);
+                // Storage never refers to unused palette ids, so they can't make the section hold a Safe Block
+                if (state != null && classes[id] == BlockClassifier.SAFE) hasSafe = true;
+            }
+        } else {
+            // Global palette: too many entries to classify up front, so we can't rule out Safe Blocks
+            hasSafe = true;
+        }
+        this.hasSafe = hasSafe;
+    }
+
+    /**
+     * @return the section's classes, or null if its container can't be read directly
+     */
+    @Nullable
+    static SectionClasses of(BlockClassifier classifier, ExtendedBlockStorage section) {
+        if (STORAGE_FIELD == null || PALETTE_FIELD == null || BITS_FIELD == null) return null;
+
+        try {
+            BlockStateContainer container = section.getData();
+            return new SectionClasses(classifier, (BitArray) STORAGE_FIELD.get(container), (IBlockStatePalette) PALETTE_FIELD.get(container), BITS_FIELD.getInt(container));
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets a block's value from its position within the section.
+     */
+    int getValue(int x, int y, int z) {
+        final int id = storage.getAt(y << 8 | z << 4 | x);
+        int value = classes[id];
+        if (value == UNCLASSIFIED) {
+            final IBlockState state = palette.getBlockState(id);
+            value = classes[id] = classifier.classify(state == null ? AIR : state);
+        }
+        return value;
+    }
+
+    /**
+     * @return false if the section is known to have no Safe Blocks
+     */
+    boolean hasSafe() {
+        return hasSafe;
+    }
+
+    @Nullable
+    private static Field findField(String... names) {
+        try {
+            return ReflectionHelper.findField(BlockStateContainer.class, names);
+        } catch (Exception e) {
+            YungsLaw.LOGGER.warn("Unable to access BlockStateContainer.{}. Falling back to per-block classification: {}", names[0], e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.yungnickyoung.minecraft.yungslaw.world.structure;
+
+import com.yungnickyoung.minecraft.yungslaw.config.StructureHandling;
+import com.yungnickyoung.minecraft.yungslaw.config.util.ConfigHolder;
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementRegion;
+import net.minecraft.world.World;
+import net.minecraft.world.gen.structure.StructureBoundingBox;
+
+import java.util.List;
+
+/**
+ * Overrides the value of every block inside a structure component's bounding box.
+ * The boxes are rasterised over the region's padded volume up front, so each read only costs an array lookup.
+ */
+public class StructureClassSource implements ClassSource {
+    private final ClassSource delegate;
+    private final int value;
+    private final int outerXStart;
+    private final int outerZStart;
+    private final int paddedX;
+    private final int paddedZ;
+    private final int height;
+    private final boolean[] inside;
+
+    private StructureClassSource(ClassSource delegate, ReplacementRegion region, List<StructureBoundingBox> boxes, int value) {
+        this.delegate = delegate;
+        this.value = value;
+        this.outerXStart = region.getOuterXStart();
+        this.outerZStart = region.getOuterZStart();
+        this.paddedX = region.getPaddedSizeX();
+        this.paddedZ = region.getPaddedSizeZ();
+        this.height = region.getPaddedHeight();
+        this.inside = new boolean[paddedX * paddedZ * height];
+
+        for (StructureBoundingBox box : boxes) {
+            final int x0 = Math.max(box.minX - outerXStart, 0), x1 = Math.min(box.maxX - outerXStart, paddedX - 1);
+            final int z0 = Math.max(box.minZ - outerZStart, 0), z1 = Math.min(box.maxZ - outerZStart, paddedZ - 1);
+            final int y0 = Math.max(box.minY, 0),               y1 = Math.min(box.maxY, height - 1);
+            for (int y = y0; y <= y1; y++) {
+                for (int z = z0; z <= z1; z++) {
+                    final int rowStart = (y * paddedZ + z) * paddedX;
+                    for (int x = x0; x <= x1; x++) inside[rowStart + x] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wraps a source according to the dimension's Structure Handling, if any structures are near the region.
+     */
+    public static ClassSource wrap(World world, ReplacementRegion region, ClassSource source, ConfigHolder config) {
+        final StructureHandling handling = StructureHandling.fromString(config.structureHandling.get());
+        if (handling == StructureHandling.NONE) return source;
+
+        final List<StructureBoundingBox> boxes = StructureIndex.query(world,
+            region.getOuterXStart(), region.getOuterZStart(),
+            region.getOuterXStart() + region.getPaddedSizeX() - 1, region.getOuterZStart() + region.getPaddedSizeZ() - 1);
+        return wrap(region, source, boxes, handling);
+    }
+
+    /**
+     * Wraps a source with the given bounding boxes, e.g. ones recorded along with a chunk snapshot.
+     */
+    public static ClassSource wrap(ReplacementRegion region, ClassSource source, List<StructureBoundingBox> boxes, StructureHandling handling) {
+        if (handling == StructureHandling.NONE || boxes.isEmpty()) return source;
+
+        return new StructureClassSource(source, region, boxes, handling.getValue());
+    }
+
+    @Override
+    public int getValue(int x, int y, int z) {
+        final int localX = x - outerXStart, localZ = z - outerZStart;
+        if (localX >= 0 && localX < paddedX && localZ >= 0 && localZ < paddedZ && y >= 0 && y < height
+            && inside[(y * paddedZ + localZ) * paddedX + localX]) {
+            return value;
+        }
+        return delegate.getValue(x, y, z);
+    }
+
+    @Override
+    public boolean mayContainSafe(int x0, int y0, int z0, int x1, int y1, int z1) {
+        return value == BlockClassifier.SAFE || delegate.mayContainSafe(x0, y0, z0, x1, y1, z1);
+    }
+}
@@ -0,0 +1,120 @@
+package com.yungnickyoung.minecraft.yungslaw.world.structure;
+
+import com.yungnickyoung.minecraft.yungslaw.YungsLaw;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.gen.MapGenBase;
+import net.minecraft.world.gen.structure.MapGenStructure;
+import net.minecraft.world.gen.structure.StructureBoundingBox;
+import net.minecraft.world.gen.structure.StructureComponent;
+import net.minecraft.world.gen.structure.StructureStart;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Grid index of the structure components in a world, one cell per chunk.
+ *
+ * Structure generators register themselves as they're created (see EventMapGen). Each generator's structure starts
+ * are indexed the first time they are seen, so finding the components near a region takes one lookup per chunk.
+ * Indexes don't refer to their world, so an unloaded world's index is dropped along with it.
+ */
+public class StructureIndex {
+    private static final Field WORLD_FIELD = findField(MapGenBase.class, "world", "field_75039_c");
+    private static final Field STRUCTURE_MAP_FIELD = findField(MapGenStructure.class, "structureMap", "field_75053_d");
+
+    private static final Set<MapGenStructure> GENERATORS = Collections.newSetFromMap(new WeakHashMap<>());
+    private static final Map<World, StructureIndex> INDEXES = new WeakHashMap<>();
+
+    /** Number of starts each generator had when it was last indexed */
+    private final Map<MapGenStructure, Integer> indexedCounts = new WeakHashMap<>();
+    private final Set<StructureStart> indexedStarts = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Long, List<StructureBoundingBox>> grid = new HashMap<>();
+
+    public static synchronized void register(MapGenStructure generator) {
+        GENERATORS.add(generator);
+    }
+
+    /**
+     * Drops a world's index, e.g. when the world is unloaded.
+     */
+    public static synchronized void reset(World world) {
+        INDEXES.remove(world);
+    }
+
+    /**
+     * Finds every structure component in a world whose bounding box intersects the given columns.
+     * Bounds are inclusive.
+     */
+    public static synchronized List<StructureBoundingBox> query(World world, int minX, int minZ, int maxX, int maxZ) {
+        StructureIndex index = INDEXES.computeIfAbsent(world, key -> new StructureIndex());
+        index.update(world);
+
+        Set<StructureBoundingBox> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<StructureBoundingBox> result = new ArrayList<>();
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                List<StructureBoundingBox> cell = index.grid.get(ChunkPos.asLong(chunkX, chunkZ));
+                if (cell == null) continue;
+
+                for (StructureBoundingBox box : cell) {
+                    if (box.intersectsWith(minX, minZ, maxX, maxZ) && found.add(box)) result.add(box);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indexes the world's structure starts added since the last update.
+     */
+    @SuppressWarnings("unchecked")
+    private void update(World world) {
+        if (WORLD_FIELD == null || STRUCTURE_MAP_FIELD == null) return;
+
+        for (MapGenStructure generator : GENERATORS) {
+            try {
+                if (WORLD_FIELD.get(generator) != world) continue;
+
+                Map<Long, StructureStart> starts = (Map<Long, StructureStart>) STRUCTURE_MAP_FIELD.get(generator);
+                if (starts == null || indexedCounts.getOrDefault(generator, 0) == starts.size()) continue;
+                indexedCounts.put(generator, starts.size());
+
+                for (StructureStart start : starts.values()) {
+                    if (start.isSizeableStructure() && indexedStarts.add(start)) {
+                        for (StructureComponent component : start.getComponents()) add(component.getBoundingBox());
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                YungsLaw.LOGGER.error("Unable to read structures from {}: {}", generator, e);
+            }
+        }
+    }
+
+    private void add(StructureBoundingBox box) {
+        for (int chunkX = box.minX >> 4; chunkX <= box.maxX >> 4; chunkX++) {
+            for (int chunkZ = box.minZ >> 4; chunkZ <= box.maxZ >> 4; chunkZ++) {
+                grid.computeIfAbsent(ChunkPos.asLong(chunkX, chunkZ), key -> new ArrayList<>()).add(box);
+            }
+        }
+    }
+
+    @Nullable
+    private static Field findField(Class<?> clazz, String... names) {
+        try {
+            return ReflectionHelper.findField(clazz, names);
+        } catch (Exception e) {
+            YungsLaw.LOGGER.warn("Unable to access {}.{}. Structure Handling won't work: {}", clazz.getSimpleName(), names[0], e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.yungnickyoung.minecraft.yungslaw.corpus;
+
+import com.yungnickyoung.minecraft.yungslaw.world.engine.BandedEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.EngineType;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ParallelEngine;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementEngine;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays the class snapshots in the test corpus through every engine, without Minecraft.
+ */
+public class ClassSnapshotReplayTest {
+    @Test
+    public void corpusMatchesExpected() throws IOException, URISyntaxException {
+        final File[] files = getCorpusDirectory().listFiles((dir, name) -> name.endsWith(".classes"));
+        assertTrue("Empty test corpus", files != null && files.length > 0);
+
+        for (File file : files) {
+            final ClassSnapshot snapshot;
+            try (InputStream in = new FileInputStream(file)) {
+                snapshot = ClassSnapshot.read(in);
+            }
+
+            for (Map.Entry<String, ReplacementEngine> engine : getEngines(snapshot).entrySet()) {
+                assertArrayEquals(engine.getKey() + " differs on " + snapshot.label, snapshot.getExpected(), snapshot.replay(engine.getValue()));
+            }
+        }
+    }
+
+    @Test
+    public void syntheticSnapshotsAreUpToDate() throws IOException, URISyntaxException {
+        for (ClassSnapshot snapshot : SyntheticCorpus.createAll()) {
+            final File file = new File(getCorpusDirectory(), snapshot.label + ".classes");
+            assertTrue("Missing " + file.getName() + ", run SyntheticCorpus to regenerate", file.isFile());
+
+            final ByteArrayOutputStream generated = new ByteArrayOutputStream();
+            snapshot.write(generated);
+            try (InputStream in = new FileInputStream(file)) {
+                assertArrayEquals(file.getName() + " is out of date, run SyntheticCorpus to regenerate",
+                    uncompress(new ByteArrayInputStream(generated.toByteArray())), uncompress(in));
+            }
+        }
+    }
+
+    private File getCorpusDirectory() throws URISyntaxException {
+        final URL corpus = getClass().getResource("/corpus");
+        assertNotNull("Missing test corpus", corpus);
+        return new File(corpus.toURI());
+    }
+
+    /**
+     * Compression may differ between Java versions, so snapshots are compared uncompressed.
+     */
+    private static byte[] uncompress(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        try (InputStream data = new GZIPInputStream(in)) {
+            for (int read; (read = data.read(buffer)) != -1; ) out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Snapshots with Depth Bands only apply to the BANDED engine. The rest apply to all of them.
+     */
+    private static Map<String, ReplacementEngine> getEngines(ClassSnapshot snapshot) {
+        final Map<String, ReplacementEngine> engines = new LinkedHashMap<>();
+        if (!snapshot.hasVariableRadius()) {
+            for (EngineType engineType : EngineType.values()) {
+                if (engineType != EngineType.AUTO) engines.put(engineType.name(), engineType.getEngine());
+            }
+            engines.put("PARALLEL", new ParallelEngine());
+        }
+        engines.put("BANDED", new BandedEngine(snapshot.getRadii()));
+        return engines;
+    }
+}
@@ -0,0 +1,164 @@
+package com.yungnickyoung.minecraft.yungslaw.corpus;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ClassSource;
+import com.yungnickyoung.minecraft.yungslaw.world.engine.ReplacementRegion;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates the synthetic class snapshots in src/test/resources/corpus.
+ *
+ * Each one is a terrain-like volume built from simple shapes, standing in for the kind of spot real snapshots are
+ * exported from. Expected masks are found by brute force, checking every block's whole neighbourhood, so they don't
+ * depend on any engine. Run main to regenerate the files after changing a scenario.
+ */
+public class SyntheticCorpus {
+    private static final int MAX_ALTITUDE = 63;
+    private static final int SEED = 1234;
+
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : "src/test/resources/corpus");
+        if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Unable to create " + directory);
+
+        for (ClassSnapshot snapshot : createAll()) {
+            try (OutputStream out = new FileOutputStream(new File(directory, snapshot.label + ".classes"))) {
+                snapshot.write(out);
+            }
+        }
+    }
+
+    public static List<ClassSnapshot> createAll() {
+        final ClassSource caves = (x, y, z) -> {
+            final int value = stone(SEED, 60).getValue(x, y, z);
+            if (value == BlockClassifier.UNTOUCHABLE) return value;
+
+            // Two winding tunnels, and the odd air pocket
+            final double tunnelA = Math.hypot(y - (30 + 4 * Math.sin(x * 0.3)), z - (8 + 5 * Math.sin(x * 0.2)));
+            final double tunnelB = Math.hypot(x - (12 + 3 * Math.sin(z * 0.25)), y - (45 + 3 * Math.cos(z * 0.3)));
+            if (tunnelA < 1.8 || tunnelB < 1.5 || y > 5 && random(SEED + 9, x, y, z) < 0.0015) return BlockClassifier.SAFE;
+            return value;
+        };
+        final ClassSource ravine = (x, y, z) -> {
+            // A narrow slot running along Z, widest halfway down
+            final double halfWidth = 2.5 * Math.sin(Math.PI * (y - 12) / 40.0);
+            if (y > 12 && y < 52 && Math.abs(x - (7 + 3 * Math.sin(z * 0.15))) < halfWidth) return BlockClassifier.SAFE;
+            return stone(SEED + 1, 64).getValue(x, y, z);
+        };
+        final ClassSource lavaLake = (x, y, z) -> {
+            final double distance = square((x - 6) / 9.0) + square((z - 10) / 7.0) + square((y - 11) / 3.0);
+            return distance < 1 ? BlockClassifier.SAFE : stone(SEED + 3, 64).getValue(x, y, z);
+        };
+        final ClassSource solidStone = (x, y, z) -> {
+            // A single air pocket, right at the edge of the widest padding
+            if (x == 30 && y == 37 && z == -14) return BlockClassifier.SAFE;
+            return stone(SEED + 4, 70).getValue(x, y, z);
+        };
+        final ClassSource bedrock = (x, y, z) -> {
+            // Uneven bedrock up to y = 8, with a pocket of air just above it
+            if (y <= 8 && random(SEED + 5, x, y, z) < 1 - y / 9.0) return BlockClassifier.UNTOUCHABLE;
+            if (y >= 10 && y <= 12 && Math.hypot(x - 4, z - 11) < 2.5) return BlockClassifier.SAFE;
+            return stone(SEED + 5, 64).getValue(x, y, z);
+        };
+
+        int[] bandRadii = new int[MAX_ALTITUDE];
+        for (int y = 0; y < MAX_ALTITUDE; y++) bandRadii[y] = y < 16 ? 1 : y < 40 ? 5 : 2;
+
+        List<ClassSnapshot> snapshots = new ArrayList<>();
+        snapshots.add(create("synthetic_caves", caves, BlockClassifier.PROCESSABLE, uniform(3)));
+        snapshots.add(create("synthetic_ravine", ravine, BlockClassifier.PROCESSABLE, uniform(3)));
+        // Everything above the seabed is water, which Liquid Safety makes safe
+        snapshots.add(create("synthetic_ocean_floor", stone(SEED + 2, 40), BlockClassifier.PROCESSABLE, uniform(3)));
+        snapshots.add(create("synthetic_lava_lake", lavaLake, BlockClassifier.PROCESSABLE, uniform(8)));
+        snapshots.add(create("synthetic_solid_stone", solidStone, BlockClassifier.PROCESSABLE, uniform(16)));
+        snapshots.add(create("synthetic_bedrock", bedrock, BlockClassifier.PROCESSABLE, uniform(4)));
+        snapshots.add(create("synthetic_ore_deletion", caves, BlockClassifier.ORE, uniform(3)));
+        snapshots.add(create("synthetic_depth_bands", caves, BlockClassifier.PROCESSABLE, bandRadii));
+        return snapshots;
+    }
+
+    private static ClassSnapshot create(String label, ClassSource source, int targetValue, int[] radii) {
+        final int radius = Arrays.stream(radii).max().orElse(0);
+        final ReplacementRegion region = new ReplacementRegion(0, 0, 16, 16, radius, radii.length, targetValue);
+
+        // The terrain is slow to evaluate, so the padded volume is evaluated once up front
+        final int padded = region.getPaddedSizeX();
+        final int height = region.getPaddedHeight();
+        final byte[] values = new byte[padded * padded * height];
+        for (int y = 0; y < height; y++) {
+            for (int z = 0; z < padded; z++) {
+                for (int x = 0; x < padded; x++) {
+                    values[(y * padded + z) * padded + x] = (byte) source.getValue(x - radius, y, z - radius);
+                }
+            }
+        }
+        final ClassSource volume = (x, y, z) -> values[(y * padded + z + radius) * padded + x + radius];
+
+        final byte[] expected = new byte[16 * 16 * radii.length];
+        for (int y = 0; y < radii.length; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    if (volume.getValue(x, y, z) == targetValue && !isNearSafe(volume, x, y, z, radii[y])) {
+                        expected[(y * 16 + z) * 16 + x] = 1;
+                    }
+                }
+            }
+        }
+        return ClassSnapshot.of(label, region, volume, radii, expected);
+    }
+
+    /**
+     * Checks every block within range. The padded volume covers every layer's range.
+     */
+    private static boolean isNearSafe(ClassSource source, int x, int y, int z, int radius) {
+        for (int dy = Math.max(-radius, -y); dy <= radius; dy++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (source.getValue(x + dx, y + dy, z + dz) == BlockClassifier.SAFE) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stone with scattered ores, over a bedrock floor. Everything above the gently rolling surface is safe.
+     */
+    private static ClassSource stone(int seed, int surface) {
+        return (x, y, z) -> {
+            if (y <= 1 || y <= 4 && random(seed, x, y, z) < 0.5) return BlockClassifier.UNTOUCHABLE;
+            if (y > surface + Math.round(3 * Math.sin(x * 0.15) + 2 * Math.cos(z * 0.2))) return BlockClassifier.SAFE;
+            if (random(seed + 1, x >> 1, y >> 1, z >> 1) < 0.06 - y * 0.0007) return BlockClassifier.ORE;
+            return BlockClassifier.PROCESSABLE;
+        };
+    }
+
+    private static int[] uniform(int radius) {
+        int[] radii = new int[MAX_ALTITUDE];
+        Arrays.fill(radii, radius);
+        return radii;
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+
+    /**
+     * @return a number in [0, 1) that depends only on the seed and position
+     */
+    private static double random(long seed, int x, int y, int z) {
+        long hash = seed ^ (x * 73856093L) ^ (y * 19349663L) ^ (z * 83492791L);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,134 @@
+package com.yungnickyoung.minecraft.yungslaw.world.engine;
+
+import com.yungnickyoung.minecraft.yungslaw.world.BlockClassifier;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that every engine makes exactly the decisions of the reference GRID engine on random volumes,
+ * and that the BANDED engine matches a brute-force search when the Generation Distance varies with depth.
+ */
+public class EngineEquivalenceTest {
+    private static final int TRIALS = 200;
+
+    @Test
+    public void enginesMatchGrid() {
+        final Random random = new Random(1);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            final int radius = random.nextInt(trial % 5 == 0 ? 17 : 6);
+            final int maxAltitude = 1 + random.nextInt(trial % 7 == 0 ? 255 : 70);
+            final int size = random.nextInt(4) == 0 ? 16 * (1 + random.nextInt(3)) : 16;
+            final int targetValue = random.nextBoolean() ? BlockClassifier.PROCESSABLE : BlockClassifier.ORE;
+            final ReplacementRegion region = new ReplacementRegion(random.nextInt(200) - 100, random.nextInt(200) - 100, size, size, radius, maxAltitude, targetValue);
+            final ClassSource source = createSource(random.nextLong(), new double[]{0, 0.0005, 0.003, 0.02, 0.2, 0.6}[random.nextInt(6)]);
+
+            final int[] radii = new int[maxAltitude];
+            Arrays.fill(radii, radius);
+            final Map<String, ReplacementEngine> engines = new LinkedHashMap<>();
+            for (EngineType engineType : EngineType.values()) {
+                if (engineType != EngineType.AUTO) engines.put(engineType.name(), engineType.getEngine());
+            }
+            engines.put("PARALLEL", new ParallelEngine());
+            engines.put("BANDED", new BandedEngine(radii));
+
+            final Set<Long> expected = run(new GridEngine(), region, source);
+            for (Map.Entry<String, ReplacementEngine> engine : engines.entrySet()) {
+                assertEquals(engine.getKey() + " differs from GRID in trial " + trial, expected, run(engine.getValue(), region, source));
+            }
+        }
+    }
+
+    @Test
+    public void bandedMatchesBruteForce() {
+        final Random random = new Random(7);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            final int maxAltitude = 1 + random.nextInt(80);
+            final int[] radii = new int[maxAltitude];
+            int layerRadius = random.nextInt(7);
+            for (int y = maxAltitude - 1; y >= 0; y--) {
+                if (random.nextInt(12) == 0) layerRadius = random.nextInt(9);
+                radii[y] = layerRadius;
+            }
+
+            // The padding may be wider than the largest distance needs
+            final int radius = Arrays.stream(radii).max().getAsInt() + random.nextInt(2);
+            final int size = 16 * (1 + random.nextInt(2));
+            final ReplacementRegion region = new ReplacementRegion(random.nextInt(100) - 50, random.nextInt(100) - 50, size, size, radius, maxAltitude, BlockClassifier.PROCESSABLE);
+            final ClassSource source = createSource(random.nextLong(), new double[]{0, 0.001, 0.01, 0.05, 0.3}[random.nextInt(5)]);
+
+            assertEquals("BANDED differs in trial " + trial, bruteForce(region, source, radii), run(new BandedEngine(radii), region, source));
+        }
+    }
+
+    /**
+     * Terrain-like noise: scattered Safe Blocks, cave-like clusters of them, and a mix of the other classes.
+     */
+    private static ClassSource createSource(long seed, double safeChance) {
+        return (x, y, z) -> {
+            long hash = seed ^ (x * 73856093L) ^ (y * 19349663L) ^ (z * 83492791L);
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+
+            final double roll = (hash >>> 11) * 0x1.0p-53;
+            final boolean cave = ((x >> 3) + (z >> 3) + (y >> 3)) % 5 == 0 && roll < 0.7;
+            if (roll < safeChance || cave && safeChance > 0.001) return BlockClassifier.SAFE;
+
+            final int kind = (int) ((hash >>> 3) % 10);
+            if (kind == 0) return BlockClassifier.UNTOUCHABLE;
+            return kind < 4 ? BlockClassifier.ORE : BlockClassifier.PROCESSABLE;
+        };
+    }
+
+    /**
+     * Runs an engine, checking that it only replaces target blocks within the inner area, and each of them once.
+     */
+    private static Set<Long> run(ReplacementEngine engine, ReplacementRegion region, ClassSource source) {
+        final Set<Long> replaced = new HashSet<>();
+        engine.process(region, source, (x, y, z, value) -> {
+            assertEquals(region.targetValue, value);
+            assertTrue(x >= region.xStart && x < region.xStart + region.sizeX && z >= region.zStart && z < region.zStart + region.sizeZ);
+            assertTrue(y >= 0 && y < region.maxAltitude);
+            assertTrue("Replaced twice", replaced.add(key(x, y, z)));
+        });
+        return replaced;
+    }
+
+    private static Set<Long> bruteForce(ReplacementRegion region, ClassSource source, int[] radii) {
+        final Set<Long> replaced = new HashSet<>();
+        for (int y = 0; y < region.maxAltitude; y++) {
+            for (int z = region.zStart; z < region.zStart + region.sizeZ; z++) {
+                for (int x = region.xStart; x < region.xStart + region.sizeX; x++) {
+                    if (source.getValue(x, y, z) == region.targetValue && !isNearSafe(source, x, y, z, radii[y])) replaced.add(key(x, y, z));
+                }
+            }
+        }
+        return replaced;
+    }
+
+    private static boolean isNearSafe(ClassSource source, int x, int y, int z, int radius) {
+        for (int dy = Math.max(-radius, -y); dy <= radius; dy++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (source.getValue(x + dx, y + dy, z + dz) == BlockClassifier.SAFE) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long key(int x, int y, int z) {
+        return ((long) x & 0xFFFFFF) << 40 | ((long) z & 0xFFFFFF) << 16 | y;
+    }
+}